@@ -45,4 +45,25 @@ public @interface CacheAdd
      */
     String key() default "";
 
+    /**
+     * @return 合并并发加载，缓存未命中时同一缓存键只有一个线程执行方法，其余线程等待其结果
+     */
+    boolean sync() default false;
+
+    /**
+     * @return 刷新时间(秒)，超过后先返回旧值，同时在后台重新执行方法，0不刷新
+     */
+    long refreshAfter() default 0;
+
+    /**
+     * @return 硬超时时间(秒)，刷新失败时旧值最多保留到此时间，0由缓存自身超时决定
+     */
+    long expireAfter() default 0;
+
+    /**
+     * @return 批量键，第一个集合参数按元素分别缓存，只用未命中的元素调用方法，结果按参数顺序合并。
+     *         返回集合时元素需实现Entity，按主键对应，返回Map时按键对应。忽略key、sync、refreshAfter和expireAfter
+     */
+    boolean multiKey() default false;
+
 }
@@ -45,4 +45,9 @@ public @interface CacheRequired
      */
     CacheType type() default NONE;
 
+    /**
+     * @return 键生成器bean名，为空使用默认键生成器
+     */
+    String keyGenerator() default "";
+
 }
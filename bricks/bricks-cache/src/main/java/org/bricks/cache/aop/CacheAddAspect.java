@@ -47,7 +47,7 @@ public class CacheAddAspect extends AbstractAspect
     }
 
     @Override
-    @Around("@annotation(com.wgc.bricks.cache.annotation.CacheAdd)")
+    @Around("@annotation(org.bricks.cache.annotation.CacheAdd)")
     public Object around(ProceedingJoinPoint pjp) throws Throwable
     {
         return super.around(pjp);
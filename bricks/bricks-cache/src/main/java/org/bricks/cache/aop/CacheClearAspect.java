@@ -46,7 +46,7 @@ public class CacheClearAspect extends AbstractAspect
     }
 
     @Override
-    @AfterReturning("@annotation(com.wgc.bricks.cache.annotation.CacheClear)")
+    @AfterReturning("@annotation(org.bricks.cache.annotation.CacheClear)")
     public void afterReturning(JoinPoint pjp)
     {
         super.afterReturning(pjp);
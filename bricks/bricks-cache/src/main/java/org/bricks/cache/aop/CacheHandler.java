@@ -16,13 +16,37 @@
 
 package org.bricks.cache.aop;
 
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static java.lang.System.currentTimeMillis;
 import static java.util.Arrays.stream;
+import static java.util.Collections.emptyMap;
 import static java.util.Optional.ofNullable;
-import static org.apache.commons.lang3.ArrayUtils.isNotEmpty;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.bricks.cache.enums.CacheType.ALL;
+import static org.bricks.cache.enums.CacheType.NONE;
+import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
 import static org.bricks.enums.Default.NULL;
+import static org.bricks.utils.ContextHolder.getBean;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import javax.annotation.Resource;
 
@@ -35,20 +59,28 @@ import org.bricks.aop.AroundHandler;
 import org.bricks.cache.annotation.CacheAdd;
 import org.bricks.cache.annotation.CacheClear;
 import org.bricks.cache.annotation.CacheRequired;
+import org.bricks.cache.bean.CacheKey;
+import org.bricks.cache.bean.CacheValue;
 import org.bricks.cache.enums.CacheType;
 import org.bricks.cache.service.CacheService;
+import org.bricks.cache.service.HashKeyGenerator;
+import org.bricks.entity.Entity;
+import org.bricks.exception.BaseException;
 import org.bricks.utils.FunctionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.stereotype.Component;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * 读取缓存
  *
  * @author fuzy
  *
  */
+@Slf4j
 @Component
 public class CacheHandler implements AroundHandler, AfterReturningHandler
 {
@@ -59,6 +91,12 @@ public class CacheHandler implements AroundHandler, AfterReturningHandler
     @Resource(name = "caffeineService")
     protected CacheService caffeineService;
 
+    /**
+     * 堆外缓存
+     */
+    @Resource(name = "offHeapService")
+    protected CacheService offHeapService;
+
     /**
      * 二级缓存
      */
@@ -72,51 +110,420 @@ public class CacheHandler implements AroundHandler, AfterReturningHandler
     @Resource
     protected KeyGenerator keyGenerator;
 
+    /**
+     * hash键生成器，结构化键转为远程缓存的键
+     */
+    @Resource
+    protected HashKeyGenerator hashKeyGenerator;
+
+    /**
+     * 后台刷新线程池，没有时使用公共线程池
+     */
+    @Qualifier("asyncExecutor")
+    @Autowired(required = false)
+    protected Executor asyncExecutor;
+
+    /**
+     * 加载中的缓存 Map&lt;缓存名, Map&lt;缓存键, 结果&gt;&gt;
+     */
+    private final Map<String, Map<Object, CompletableFuture<Object>>> loadingMap = new ConcurrentHashMap<>();
+
+    /**
+     * 刷新中的缓存键 Map&lt;缓存名, Set&lt;缓存键&gt;&gt;
+     */
+    private final Map<String, Set<Object>> refreshingMap = new ConcurrentHashMap<>();
+
+    /**
+     * 方法的缓存描述 Map&lt;目标类, Map&lt;方法, 缓存描述&gt;&gt;，首次调用时解析注解
+     */
+    private final ClassValue<Map<Method, CacheMethod>> methodMap = new ClassValue<>()
+    {
+
+        @Override
+        protected Map<Method, CacheMethod> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<>();
+        }
+
+    };
+
     @Override
     public Object around(ProceedingJoinPoint pjp)
     {
         Object target = pjp.getTarget();
-        Class<?> clazz = target.getClass();
-        String classCacheName = clazz.getSimpleName();
-        CacheRequired cacheRequired = clazz.getAnnotation(CacheRequired.class);
-        CacheType type = cacheRequired.type();
-        MethodSignature signature = (MethodSignature) pjp.getSignature();
-        Method method = signature.getMethod();
-        Object[] args = pjp.getArgs();
-        CacheAdd cacheAdd = method.getAnnotation(CacheAdd.class);
-        String name = ofNullable(cacheAdd).filter(c -> isNotBlank(c.value()))
-                .map(CacheAdd::value)
-                .orElse(classCacheName);
-        String key = ofNullable(cacheAdd).filter(c -> isNotBlank(c.key()))
-                .map(CacheAdd::key)
-                .orElseGet(() -> (String) keyGenerator.generate(target, method, args));
-        Object rtn = ofNullable(cacheAdd).map(c -> get(type, name, key))
-                .orElseGet(FunctionUtils.get(() ->
-                {
-                    Object proceed = pjp.proceed();
-                    put(type, name, key, ofNullable(proceed).orElse(NULL));
-                    return proceed;
-                }, null, null, null));
-        return NULL.equals(rtn) || NULL.name()
-                .equals(rtn) ? null : rtn;
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        CacheMethod cacheMethod = getCacheMethod(target.getClass(), method);
+        if (cacheMethod.multiKey)
+        {
+            return multiGet(pjp, cacheMethod);
+        }
+        Object key = cacheMethod.key != null ? cacheMethod.key
+                : cacheMethod.keyGenerator.generate(target, method, pjp.getArgs());
+        Object rtn = cacheMethod.add ? get(pjp, cacheMethod, key, true) : null;
+        if (rtn == null)
+        {
+            rtn = cacheMethod.sync ? load(pjp, cacheMethod, key) : proceed(pjp, cacheMethod, key);
+        }
+        return isNull(rtn) ? null : rtn;
     }
 
     @Override
     public void afterReturning(JoinPoint joinPoint, Object result)
     {
-        Object target = joinPoint.getTarget();
-        Class<?> clazz = target.getClass();
-        CacheRequired cacheRequired = clazz.getAnnotation(CacheRequired.class);
-        CacheType type = cacheRequired.type();
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        CacheClear cacheClear = method.getAnnotation(CacheClear.class);
-        String[] names = ofNullable(cacheClear).map(CacheClear::value)
-                .orElse(null);
-        clear(type, clazz.getSimpleName(), names);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        CacheMethod cacheMethod = getCacheMethod(joinPoint.getTarget()
+                .getClass(), method);
+        clear(cacheMethod.type, cacheMethod.clearNames);
+    }
+
+    /**
+     * 方法的缓存描述
+     *
+     * @param clazz 目标类
+     * @param method 方法
+     * @return 缓存描述
+     */
+    private CacheMethod getCacheMethod(Class<?> clazz, Method method)
+    {
+        return methodMap.get(clazz)
+                .computeIfAbsent(method, m -> new CacheMethod(clazz, m,
+                        getKeyGenerator(clazz.getAnnotation(CacheRequired.class))));
+    }
+
+    /**
+     * 合并并发加载，同一缓存键只有一个线程执行方法，其余线程等待其结果。
+     * 只在本进程内合并，方法内不能递归调用同一缓存键
+     *
+     * @param pjp pjp
+     * @param cacheMethod 缓存描述
+     * @param key 缓存键
+     * @return 结果
+     */
+    private Object load(ProceedingJoinPoint pjp, CacheMethod cacheMethod, Object key)
+    {
+        Map<Object, CompletableFuture<Object>> loadings = loadingMap.computeIfAbsent(cacheMethod.name,
+                n -> new ConcurrentHashMap<>());
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> loading = loadings.putIfAbsent(key, future);
+        if (loading != null)
+        {
+            try
+            {
+                return loading.join();
+            }
+            catch (CompletionException e)
+            {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try
+        {
+            // 等待期间其他线程可能已加载完成
+            Object rtn = ofNullable(get(pjp, cacheMethod, key, false)).orElseGet(() -> proceed(pjp, cacheMethod, key));
+            future.complete(rtn);
+            return rtn;
+        }
+        catch (RuntimeException e)
+        {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            loadings.remove(key, future);
+        }
+    }
+
+    /**
+     * 批量键，按元素读取缓存，只用未命中的元素调用方法，未找到的元素缓存空值，结果按参数顺序合并
+     *
+     * @param pjp pjp
+     * @param cacheMethod 缓存描述
+     * @return 结果
+     */
+    @SuppressWarnings(UNCHECKED)
+    private Object multiGet(ProceedingJoinPoint pjp, CacheMethod cacheMethod)
+    {
+        Object target = pjp.getTarget();
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        Object[] args = pjp.getArgs()
+                .clone();
+        Collection<Object> ids = (Collection<Object>) args[cacheMethod.idIndex];
+        if (ids == null || ids.isEmpty())
+        {
+            return invoke(pjp, args);
+        }
+        Map<Object, Object> keyMap = new LinkedHashMap<>();
+        for (Object id : ids)
+        {
+            Object[] idArgs = args.clone();
+            idArgs[cacheMethod.idIndex] = id;
+            keyMap.put(id, cacheMethod.keyGenerator.generate(target, method, idArgs));
+        }
+        Map<Object, Object> cached = getAll(cacheMethod.type, cacheMethod.name, keyMap.values());
+        Map<Object, Object> values = new HashMap<>();
+        List<Object> missing = new ArrayList<>();
+        keyMap.forEach((id, key) ->
+        {
+            Object value = cached.get(key);
+            if (value != null)
+            {
+                values.put(id, value);
+            }
+            else
+            {
+                missing.add(id);
+            }
+        });
+        if (!missing.isEmpty())
+        {
+            args[cacheMethod.idIndex] = Set.class.isAssignableFrom(method.getParameterTypes()[cacheMethod.idIndex])
+                    ? new LinkedHashSet<>(missing) : missing;
+            Map<Object, Object> loaded = toMap(invoke(pjp, args));
+            Map<Object, Object> putMap = new LinkedHashMap<>();
+            for (Object id : missing)
+            {
+                Object value = ofNullable(loaded.get(id)).orElse(NULL);
+                values.put(id, value);
+                putMap.put(keyMap.get(id), value);
+            }
+            try
+            {
+                putAll(cacheMethod.type, cacheMethod.name, putMap);
+            }
+            catch (RuntimeException e)
+            {
+                log.warn("put cache {} failed: {}", cacheMethod.name, e.getMessage(), e);
+            }
+        }
+        return merge(method.getReturnType(), keyMap.keySet(), values);
+    }
+
+    /**
+     * 执行方法
+     *
+     * @param pjp pjp
+     * @param args 参数
+     * @return 结果
+     */
+    private Object invoke(ProceedingJoinPoint pjp, Object[] args)
+    {
+        Supplier<Object> supplier = FunctionUtils.get(() -> pjp.proceed(args), null, null, null);
+        return supplier.get();
+    }
+
+    /**
+     * 批量结果转为 Map&lt;主键, 元素&gt;
+     *
+     * @param rtn 方法结果
+     * @return Map&lt;主键, 元素&gt;
+     */
+    @SuppressWarnings(UNCHECKED)
+    private Map<Object, Object> toMap(Object rtn)
+    {
+        if (rtn instanceof Map)
+        {
+            return (Map<Object, Object>) rtn;
+        }
+        Map<Object, Object> map = new HashMap<>();
+        if (rtn != null)
+        {
+            for (Object element : (Iterable<Object>) rtn)
+            {
+                if (element instanceof Entity)
+                {
+                    map.put(((Entity<?>) element).getId(), element);
+                }
+                else if (element != null)
+                {
+                    throw new BaseException("multiKey result element " + element.getClass()
+                            .getName() + " is not an entity");
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 按参数顺序合并结果，跳过空值
+     *
+     * @param returnType 返回类型
+     * @param ids 参数中的主键
+     * @param values Map&lt;主键, 元素&gt;
+     * @return 结果
+     */
+    private Object merge(Class<?> returnType, Collection<Object> ids, Map<Object, Object> values)
+    {
+        if (Map.class.isAssignableFrom(returnType))
+        {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            ids.forEach(id -> ofNullable(values.get(id)).filter(value -> !isNull(value))
+                    .ifPresent(value -> map.put(id, value)));
+            return map;
+        }
+        Collection<Object> collection = Set.class.isAssignableFrom(returnType) ? new LinkedHashSet<>()
+                : new ArrayList<>();
+        ids.forEach(id -> ofNullable(values.get(id)).filter(value -> !isNull(value))
+                .ifPresent(collection::add));
+        return collection;
+    }
+
+    /**
+     * 是否缓存的空值
+     *
+     * @param value 缓存值
+     * @return 是否空值
+     */
+    private static boolean isNull(Object value)
+    {
+        return NULL.equals(value) || NULL.name()
+                .equals(value);
     }
 
-    private Object get(CacheType type, String name, String key)
+    /**
+     * 执行方法并缓存结果
+     *
+     * @param pjp pjp
+     * @param cacheMethod 缓存描述
+     * @param key 缓存键
+     * @return 结果
+     */
+    private Object proceed(ProceedingJoinPoint pjp, CacheMethod cacheMethod, Object key)
+    {
+        Supplier<Object> supplier = FunctionUtils.get(() ->
+        {
+            Object proceed = pjp.proceed();
+            put(cacheMethod, key, proceed);
+            return proceed;
+        }, null, null, null);
+        return supplier.get();
+    }
+
+    /**
+     * 读取缓存，超过刷新时间时返回旧值并在后台刷新，超过硬超时视为未命中
+     *
+     * @param pjp pjp
+     * @param cacheMethod 缓存描述
+     * @param key 缓存键
+     * @param refresh 是否触发刷新
+     * @return 缓存值
+     */
+    private Object get(ProceedingJoinPoint pjp, CacheMethod cacheMethod, Object key, boolean refresh)
+    {
+        Object rtn = get(cacheMethod.type, cacheMethod.name, key);
+        if (rtn instanceof CacheValue)
+        {
+            CacheValue cacheValue = (CacheValue) rtn;
+            long age = currentTimeMillis() - cacheValue.getWriteTime();
+            if (cacheMethod.expireAfter > 0 && age >= cacheMethod.expireAfter)
+            {
+                return null;
+            }
+            if (refresh && cacheMethod.refreshAfter > 0 && age >= cacheMethod.refreshAfter)
+            {
+                refresh(pjp, cacheMethod, key);
+            }
+            rtn = cacheValue.getValue();
+        }
+        return rtn;
+    }
+
+    /**
+     * 后台重新执行方法并更新缓存，同一缓存键同时只有一个刷新，失败时保留旧值
+     *
+     * @param pjp pjp
+     * @param cacheMethod 缓存描述
+     * @param key 缓存键
+     */
+    private void refresh(ProceedingJoinPoint pjp, CacheMethod cacheMethod, Object key)
+    {
+        Set<Object> refreshing = refreshingMap.computeIfAbsent(cacheMethod.name, n -> ConcurrentHashMap.newKeySet());
+        if (!refreshing.add(key))
+        {
+            return;
+        }
+        try
+        {
+            runAsync(() ->
+            {
+                try
+                {
+                    put(cacheMethod, key, pjp.proceed());
+                }
+                catch (Throwable e)
+                {
+                    log.warn("refresh cache {} failed, keep stale value: {}", cacheMethod.name, e.getMessage(), e);
+                }
+                finally
+                {
+                    refreshing.remove(key);
+                }
+            }, ofNullable(asyncExecutor).orElseGet(ForkJoinPool::commonPool));
+        }
+        catch (RejectedExecutionException e)
+        {
+            refreshing.remove(key);
+            log.warn("refresh cache {} rejected: {}", cacheMethod.name, e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存方法结果，开启刷新时记录写入时间
+     *
+     * @param cacheMethod 缓存描述
+     * @param key 缓存键
+     * @param proceed 方法结果
+     */
+    private void put(CacheMethod cacheMethod, Object key, Object proceed)
+    {
+        Object value = ofNullable(proceed).orElse(NULL);
+        try
+        {
+            put(cacheMethod.type, cacheMethod.name, key, cacheMethod.refreshAfter > 0
+                    ? new CacheValue().setValue(value)
+                            .setWriteTime(currentTimeMillis())
+                    : value);
+        }
+        catch (RuntimeException e)
+        {
+            // 缓存写入失败不能影响方法结果
+            log.warn("put cache {} failed: {}", cacheMethod.name, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 类上指定的键生成器
+     *
+     * @param cacheRequired 缓存注解
+     * @return 键生成器
+     */
+    private KeyGenerator getKeyGenerator(CacheRequired cacheRequired)
+    {
+        String name = cacheRequired != null ? cacheRequired.keyGenerator() : null;
+        if (isBlank(name))
+        {
+            return keyGenerator;
+        }
+        KeyGenerator generator = getBean(name, KeyGenerator.class);
+        if (generator == null)
+        {
+            throw new BaseException("key generator " + name + " not found");
+        }
+        return generator;
+    }
+
+    /**
+     * 远程缓存的键，结构化键转为hash字符串
+     *
+     * @param key 缓存键
+     * @return 远程缓存的键
+     */
+    private Object remoteKey(Object key)
+    {
+        return key instanceof CacheKey ? hashKeyGenerator.generate((CacheKey) key) : key;
+    }
+
+    private Object get(CacheType type, String name, Object key)
     {
         Object proceed = null;
         switch (type)
@@ -124,18 +531,31 @@ public class CacheHandler implements AroundHandler, AfterReturningHandler
             case LOCAL:
                 proceed = caffeineService.get(name, key);
                 break;
-            case BOTH:
-                proceed = caffeineService.get(name, key); // fall through
-            case REDIS:
-                if (proceed == null && redisService != null)
+            case OFF_HEAP:
+                proceed = offHeapService.get(name, key);
+                break;
+            case ALL:
+                proceed = caffeineService.get(name, key);
+                if (proceed == null)
                 {
-                    proceed = redisService.get(name, key);
+                    proceed = offHeapService.get(name, key);
                     if (proceed != null)
                     {
                         caffeineService.put(name, key, proceed);
-                        redisService.sync(name, key, proceed);
                     }
                 }
+                if (proceed == null)
+                {
+                    proceed = getRemote(type, name, key);
+                }
+                break;
+            case BOTH:
+                proceed = caffeineService.get(name, key); // fall through
+            case REDIS:
+                if (proceed == null)
+                {
+                    proceed = getRemote(type, name, key);
+                }
                 break;
             default:
                 break;
@@ -143,20 +563,180 @@ public class CacheHandler implements AroundHandler, AfterReturningHandler
         return proceed;
     }
 
-    private void put(CacheType type, String name, String key, Object value)
+    /**
+     * 读取redis，命中时回填本地缓存
+     *
+     * @param type 缓存类型
+     * @param name 缓存名
+     * @param key 缓存键
+     * @return 缓存值
+     */
+    private Object getRemote(CacheType type, String name, Object key)
+    {
+        if (redisService == null)
+        {
+            return null;
+        }
+        Object remoteKey = remoteKey(key);
+        Object proceed = redisService.get(name, remoteKey);
+        if (proceed != null)
+        {
+            caffeineService.put(name, key, proceed);
+            if (type == ALL)
+            {
+                offHeapService.put(name, key, proceed);
+            }
+            redisService.sync(name, remoteKey, proceed);
+        }
+        return proceed;
+    }
+
+    private Map<Object, Object> getAll(CacheType type, String name, Collection<Object> keys)
+    {
+        Map<Object, Object> map = new HashMap<>();
+        switch (type)
+        {
+            case LOCAL:
+                map.putAll(caffeineService.getAll(name, keys));
+                break;
+            case OFF_HEAP:
+                map.putAll(offHeapService.getAll(name, keys));
+                break;
+            case ALL:
+                map.putAll(caffeineService.getAll(name, keys));
+                map.putAll(getAllOffHeap(name, missing(keys, map)));
+                map.putAll(getAllRemote(type, name, missing(keys, map)));
+                break;
+            case BOTH:
+                map.putAll(caffeineService.getAll(name, keys)); // fall through
+            case REDIS:
+                map.putAll(getAllRemote(type, name, missing(keys, map)));
+                break;
+            default:
+                break;
+        }
+        return map;
+    }
+
+    /**
+     * 未命中的键
+     *
+     * @param keys 缓存键
+     * @param map 已命中的缓存
+     * @return 未命中的键
+     */
+    private List<Object> missing(Collection<Object> keys, Map<Object, Object> map)
+    {
+        List<Object> list = new ArrayList<>();
+        for (Object key : keys)
+        {
+            if (!map.containsKey(key))
+            {
+                list.add(key);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 批量读取堆外缓存，命中时回填本地缓存
+     *
+     * @param name 缓存名
+     * @param keys 缓存键
+     * @return 命中的缓存
+     */
+    private Map<Object, Object> getAllOffHeap(String name, List<Object> keys)
+    {
+        if (keys.isEmpty())
+        {
+            return emptyMap();
+        }
+        Map<Object, Object> map = offHeapService.getAll(name, keys);
+        caffeineService.putAll(name, map);
+        return map;
+    }
+
+    /**
+     * 批量读取redis，命中时回填本地缓存
+     *
+     * @param type 缓存类型
+     * @param name 缓存名
+     * @param keys 缓存键
+     * @return 命中的缓存
+     */
+    private Map<Object, Object> getAllRemote(CacheType type, String name, List<Object> keys)
+    {
+        if (redisService == null || keys.isEmpty())
+        {
+            return emptyMap();
+        }
+        Map<Object, Object> remoteKeyMap = new LinkedHashMap<>();
+        keys.forEach(key -> remoteKeyMap.put(remoteKey(key), key));
+        Map<Object, Object> map = new LinkedHashMap<>();
+        redisService.getAll(name, remoteKeyMap.keySet())
+                .forEach((remoteKey, value) ->
+                {
+                    map.put(remoteKeyMap.get(remoteKey), value);
+                    redisService.sync(name, remoteKey, value);
+                });
+        caffeineService.putAll(name, map);
+        if (type == ALL)
+        {
+            offHeapService.putAll(name, map);
+        }
+        return map;
+    }
+
+    private void putAll(CacheType type, String name, Map<Object, Object> map)
+    {
+        switch (type)
+        {
+            case LOCAL:
+                caffeineService.putAll(name, map);
+                break;
+            case OFF_HEAP:
+                offHeapService.putAll(name, map);
+                break;
+            case ALL:
+                offHeapService.putAll(name, map); // fall through
+            case BOTH:
+                caffeineService.putAll(name, map);
+                map.forEach((key, value) -> caffeineService.sync(name, key, value)); // fall through
+            case REDIS:
+                if (redisService != null)
+                {
+                    Map<Object, Object> remoteMap = new LinkedHashMap<>();
+                    map.forEach((key, value) -> remoteMap.put(remoteKey(key), value));
+                    redisService.putAll(name, remoteMap);
+                    remoteMap.forEach((remoteKey, value) -> redisService.sync(name, remoteKey, value));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void put(CacheType type, String name, Object key, Object value)
     {
         switch (type)
         {
             case LOCAL:
                 caffeineService.put(name, key, value);
                 break;
+            case OFF_HEAP:
+                offHeapService.put(name, key, value);
+                break;
+            case ALL:
+                offHeapService.put(name, key, value); // fall through
             case BOTH:
-                caffeineService.put(name, key, value); // fall through
+                caffeineService.put(name, key, value);
+                caffeineService.sync(name, key, value); // fall through
             case REDIS:
                 if (redisService != null)
                 {
-                    redisService.put(name, key, value);
-                    redisService.sync(name, key, value);
+                    Object remoteKey = remoteKey(key);
+                    redisService.put(name, remoteKey, value);
+                    redisService.sync(name, remoteKey, value);
                 }
                 break;
             default:
@@ -164,24 +744,29 @@ public class CacheHandler implements AroundHandler, AfterReturningHandler
         }
     }
 
-    private void clear(CacheType type, String classCacheName, String[] names)
+    private void clear(CacheType type, String[] names)
     {
         switch (type)
         {
             case LOCAL:
-                clear(caffeineService, classCacheName, names, false);
+                clear(caffeineService, names, false);
                 break;
+            case OFF_HEAP:
+                clear(offHeapService, names, false);
+                break;
+            case ALL:
+                clear(offHeapService, names, false); // fall through
             case BOTH:
                 if (redisService != null)
                 {
-                    clear(redisService, classCacheName, names, true);
+                    clear(redisService, names, true);
                 }
-                clear(caffeineService, classCacheName, names, false);
+                clear(caffeineService, names, true);
                 break;
             case REDIS:
                 if (redisService != null)
                 {
-                    clear(redisService, classCacheName, names, true);
+                    clear(redisService, names, true);
                 }
                 break;
             default:
@@ -189,25 +774,134 @@ public class CacheHandler implements AroundHandler, AfterReturningHandler
         }
     }
 
-    private void clear(CacheService cacheService, String className, String[] names, boolean sync)
+    private void clear(CacheService cacheService, String[] names, boolean sync)
     {
-        cacheService.clear(className, null);
-        if (sync)
+        for (String name : names)
         {
-            cacheService.sync(className, null, null);
+            cacheService.clear(name, null);
+            if (sync)
+            {
+                cacheService.sync(name, null, cacheService.getGeneration(name));
+            }
         }
-        if (isNotEmpty(names))
+    }
+
+    /**
+     * 方法的缓存描述，注解解析一次后复用
+     */
+    private static class CacheMethod
+    {
+
+        /**
+         * 缓存类型
+         */
+        private final CacheType type;
+
+        /**
+         * 是否读取缓存
+         */
+        private final boolean add;
+
+        /**
+         * 缓存名
+         */
+        private final String name;
+
+        /**
+         * 固定缓存键，为null时由键生成器生成
+         */
+        private final String key;
+
+        /**
+         * 合并并发加载
+         */
+        private final boolean sync;
+
+        /**
+         * 刷新时间(毫秒)
+         */
+        private final long refreshAfter;
+
+        /**
+         * 硬超时时间(毫秒)
+         */
+        private final long expireAfter;
+
+        /**
+         * 批量键
+         */
+        private final boolean multiKey;
+
+        /**
+         * 批量键的集合参数下标
+         */
+        private final int idIndex;
+
+        /**
+         * 键生成器
+         */
+        private final KeyGenerator keyGenerator;
+
+        /**
+         * 方法返回后清理的缓存名，类名在前
+         */
+        private final String[] clearNames;
+
+        /**
+         * 构造方法
+         *
+         * @param clazz 目标类
+         * @param method 方法
+         * @param keyGenerator 键生成器
+         */
+        CacheMethod(Class<?> clazz, Method method, KeyGenerator keyGenerator)
         {
-            stream(names).filter(StringUtils::isNotBlank)
-                    .forEach(n ->
-                    {
-                        cacheService.clear(n, null);
-                        if (sync)
-                        {
-                            cacheService.sync(n, null, null);
-                        }
-                    });
+            CacheRequired cacheRequired = clazz.getAnnotation(CacheRequired.class);
+            CacheAdd cacheAdd = method.getAnnotation(CacheAdd.class);
+            CacheClear cacheClear = method.getAnnotation(CacheClear.class);
+            String className = clazz.getSimpleName();
+            type = cacheRequired != null ? cacheRequired.type() : NONE;
+            add = cacheAdd != null;
+            name = add && isNotBlank(cacheAdd.value()) ? cacheAdd.value() : className;
+            key = add && isNotBlank(cacheAdd.key()) ? cacheAdd.key() : null;
+            sync = add && cacheAdd.sync();
+            refreshAfter = add ? SECONDS.toMillis(cacheAdd.refreshAfter()) : 0;
+            expireAfter = add ? SECONDS.toMillis(cacheAdd.expireAfter()) : 0;
+            multiKey = add && cacheAdd.multiKey();
+            idIndex = multiKey ? getIdIndex(method) : -1;
+            this.keyGenerator = keyGenerator;
+            Set<String> names = newLinkedHashSet();
+            names.add(className);
+            if (cacheClear != null)
+            {
+                stream(cacheClear.value()).filter(StringUtils::isNotBlank)
+                        .forEach(names::add);
+            }
+            clearNames = names.toArray(new String[0]);
         }
+
+        /**
+         * 批量键的集合参数下标，方法需有集合参数并返回集合或Map
+         *
+         * @param method 方法
+         * @return 下标
+         */
+        private static int getIdIndex(Method method)
+        {
+            Class<?> returnType = method.getReturnType();
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++)
+            {
+                if (Collection.class.isAssignableFrom(parameterTypes[i])
+                        && (Collection.class.isAssignableFrom(returnType) || Map.class.isAssignableFrom(returnType)))
+                {
+                    return i;
+                }
+            }
+            throw new BaseException("multiKey method " + method.getName()
+                    + " needs a collection parameter and a collection or map result");
+        }
+
     }
 
 }
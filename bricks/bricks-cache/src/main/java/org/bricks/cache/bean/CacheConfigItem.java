@@ -39,13 +39,48 @@ public class CacheConfigItem extends AbstractBean
     private String name;
 
     /**
-     * 超时时间
+     * 超时时间(秒)，0不超时
      */
     private long expire;
 
     /**
-     * 刷新时间
+     * 写入后刷新时间(秒)，0不刷新
      */
     private long refresh;
 
+    /**
+     * 按最后访问时间超时，默认按写入时间
+     */
+    private boolean expireAfterAccess;
+
+    /**
+     * 初始容量
+     */
+    private Integer initialCapacity;
+
+    /**
+     * 最大条数，未配置最大权重时有效
+     */
+    private Long maximumSize;
+
+    /**
+     * 最大权重
+     */
+    private Long maximumWeight;
+
+    /**
+     * 权重计算的bean名，为空时每项权重为1
+     */
+    private String weigher;
+
+    /**
+     * 值使用软引用，内存不足时回收
+     */
+    private boolean softValues;
+
+    /**
+     * 值使用弱引用
+     */
+    private boolean weakValues;
+
 }
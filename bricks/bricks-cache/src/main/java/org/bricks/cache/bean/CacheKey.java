@@ -19,36 +19,48 @@ package org.bricks.cache.bean;
 import static java.util.Arrays.deepEquals;
 import static java.util.Arrays.deepHashCode;
 
+import java.io.Serializable;
 import java.util.Optional;
 
+import lombok.Getter;
+
 /**
- * 缓存key
+ * 缓存key，按类、方法名和参数结构比较，参数需不可变。
+ * 可序列化后发给其他节点，参数也需可序列化，反序列化时在本节点重新计算hash
  *
  * @author fuzy
  *
  */
-public class CacheKey
+public class CacheKey implements Serializable
 {
 
+    /**
+     * 序列化
+     */
+    private static final long serialVersionUID = 1L;
+
     /**
      * 类型
      */
+    @Getter
     private final Class<?> clazz;
 
     /**
      * 方法名
      */
+    @Getter
     private final String method;
 
     /**
      * 参数列表
      */
+    @Getter
     private final Object[] args;
 
     /**
      * hash code
      */
-    private final int hash;
+    private final transient int hash;
 
     /**
      * 构造方法
@@ -70,11 +82,22 @@ public class CacheKey
             })
             .orElse(null);
         int code = deepHashCode(args);
-        code = 31 * code + clazz.hashCode();
+        code = 31 * code + clazz.getName()
+                .hashCode();
         code = 31 * code + method.hashCode();
         hash = code;
     }
 
+    /**
+     * 反序列化后重新计算hash，参数中枚举等的hash与节点有关
+     *
+     * @return 缓存key
+     */
+    private Object readResolve()
+    {
+        return new CacheKey(clazz, method, args);
+    }
+
     @Override
     public int hashCode()
     {
@@ -16,6 +16,8 @@
 
 package org.bricks.cache.bean;
 
+import java.io.Serializable;
+
 import org.bricks.bean.AbstractBean;
 
 import lombok.Getter;
@@ -23,7 +25,7 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 
 /**
- * 缓存消息
+ * 缓存消息，key为null时表示清空缓存
  *
  * @author fuzy
  *
@@ -31,9 +33,24 @@ import lombok.experimental.Accessors;
 @Getter
 @Setter
 @Accessors(chain = true)
-public class CacheMessage extends AbstractBean
+public class CacheMessage extends AbstractBean implements Serializable
 {
 
+    /**
+     * 序列化
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 发送节点
+     */
+    private String node;
+
+    /**
+     * 发送节点内的序号，连续递增
+     */
+    private long sequence;
+
     /**
      * 缓存名称
      */
@@ -42,7 +59,7 @@ public class CacheMessage extends AbstractBean
     /**
      * 缓存key
      */
-    private String key;
+    private Object key;
 
     /**
      * 值
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.bean;
+
+import java.io.Serializable;
+
+import org.bricks.bean.AbstractBean;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * 带写入时间的缓存值，用于过期后先返回旧值再后台刷新
+ *
+ * @author fuzy
+ *
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class CacheValue extends AbstractBean implements Serializable
+{
+
+    /**
+     * 序列化
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 值
+     */
+    private Object value;
+
+    /**
+     * 写入时间(毫秒)
+     */
+    private long writeTime;
+
+}
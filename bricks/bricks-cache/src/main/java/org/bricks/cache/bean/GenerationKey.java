@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.bean;
+
+import java.util.Objects;
+
+import lombok.Getter;
+
+/**
+ * 带代数的缓存key，清空缓存只增加代数，旧代数的条目由淘汰或超时清理
+ *
+ * @author fuzy
+ *
+ */
+@Getter
+public class GenerationKey
+{
+
+    /**
+     * 代数
+     */
+    private final long generation;
+
+    /**
+     * 原始key
+     */
+    private final Object key;
+
+    /**
+     * 构造方法
+     *
+     * @param generation 代数
+     * @param key 原始key
+     */
+    public GenerationKey(long generation, Object key)
+    {
+        this.generation = generation;
+        this.key = key;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * key.hashCode() + Long.hashCode(generation);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof GenerationKey))
+        {
+            return false;
+        }
+        GenerationKey other = (GenerationKey) obj;
+        return generation == other.generation && Objects.equals(key, other.key);
+    }
+
+    @Override
+    public String toString()
+    {
+        return key + "#" + generation;
+    }
+
+}
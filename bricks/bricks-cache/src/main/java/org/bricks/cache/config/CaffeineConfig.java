@@ -18,18 +18,24 @@ package org.bricks.cache.config;
 
 import static java.util.Optional.ofNullable;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
 
 import javax.annotation.Resource;
 
+import org.bricks.cache.bean.CacheConfigItem;
 import org.bricks.cache.service.CacheConfigItemService;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
 
 /**
  * Caffeine配置
@@ -41,12 +47,23 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 public class CaffeineConfig
 {
 
+    /**
+     * 默认最大条数
+     */
+    private static final long MAXIMUM_SIZE = 10_000;
+
     /**
      * 缓存配置
      */
     @Resource
     private CacheConfigItemService cacheConfigItemService;
 
+    /**
+     * beanFactory
+     */
+    @Resource
+    private BeanFactory beanFactory;
+
     /**
      * CacheManager
      *
@@ -59,7 +76,7 @@ public class CaffeineConfig
     {
         Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
                 .initialCapacity(100)
-                .maximumSize(10_000)
+                .maximumSize(MAXIMUM_SIZE)
                 .expireAfterAccess(cacheConfigItemService.getRefresh(), SECONDS);
         CaffeineCacheManager cacheManager = ofNullable(cacheConfigItemService.getCacheNames()).map(n -> n.split(","))
                 .map(CaffeineCacheManager::new)
@@ -67,9 +84,61 @@ public class CaffeineConfig
         cacheManager.setCaffeine(caffeine);
         cacheManager.setCacheLoader(cacheLoader);
         cacheManager.setAllowNullValues(true);
+        ofNullable(cacheConfigItemService.getItems()).ifPresent(items -> items.stream()
+                .filter(item -> isNotBlank(item.getName()))
+                .forEach(item -> cacheManager.registerCustomCache(item.getName(), build(item, cacheLoader))));
         return cacheManager;
     }
 
+    /**
+     * 按缓存配置创建缓存
+     *
+     * @param item 缓存配置
+     * @param cacheLoader cacheLoader
+     * @return 缓存
+     */
+    @SuppressWarnings(UNCHECKED)
+    private Cache<Object, Object> build(CacheConfigItem item, CacheLoader<Object, Object> cacheLoader)
+    {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
+        ofNullable(item.getInitialCapacity()).ifPresent(caffeine::initialCapacity);
+        if (item.getMaximumWeight() != null)
+        {
+            caffeine.maximumWeight(item.getMaximumWeight())
+                    .weigher(isNotBlank(item.getWeigher()) ? beanFactory.getBean(item.getWeigher(), Weigher.class)
+                            : Weigher.singletonWeigher());
+        }
+        else
+        {
+            caffeine.maximumSize(ofNullable(item.getMaximumSize()).orElse(MAXIMUM_SIZE));
+        }
+        if (item.getExpire() > 0)
+        {
+            if (item.isExpireAfterAccess())
+            {
+                caffeine.expireAfterAccess(item.getExpire(), SECONDS);
+            }
+            else
+            {
+                caffeine.expireAfterWrite(item.getExpire(), SECONDS);
+            }
+        }
+        if (item.isSoftValues())
+        {
+            caffeine.softValues();
+        }
+        else if (item.isWeakValues())
+        {
+            caffeine.weakValues();
+        }
+        if (item.getRefresh() > 0)
+        {
+            return caffeine.refreshAfterWrite(item.getRefresh(), SECONDS)
+                    .build(cacheLoader);
+        }
+        return caffeine.build();
+    }
+
     /**
      * @return cacheLoader
      */
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.config;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.List;
+
+import org.bricks.cache.service.JdkDataSerializer;
+import org.bricks.cache.service.OffHeapCacheManager;
+import org.bricks.cache.service.OffHeapStore;
+import org.bricks.data.serializer.ByteDataSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 堆外缓存配置，容量超过默认直接内存上限时需设置-XX:MaxDirectMemorySize
+ *
+ * @author fuzy
+ *
+ */
+@Configuration
+public class OffHeapConfig
+{
+
+    /**
+     * 总容量(字节)
+     */
+    @Value("${bricks.cache.offHeap.capacity:67108864}")
+    private long capacity;
+
+    /**
+     * 分段数
+     */
+    @Value("${bricks.cache.offHeap.segments:16}")
+    private int segments;
+
+    /**
+     * 块大小(字节)
+     */
+    @Value("${bricks.cache.offHeap.blockSize:1024}")
+    private int blockSize;
+
+    /**
+     * 自定义序列化，优先于jdk序列化
+     */
+    @Autowired(required = false)
+    private List<ByteDataSerializer<?>> serializers;
+
+    /**
+     * 堆外缓存管理器
+     *
+     * @return CacheManager
+     */
+    @Bean
+    public CacheManager offHeapCacheManager()
+    {
+        List<ByteDataSerializer<?>> list = serializers != null ? newArrayList(serializers) : newArrayList();
+        list.add(new JdkDataSerializer());
+        return new OffHeapCacheManager(new OffHeapStore(capacity, segments, blockSize), list);
+    }
+
+}
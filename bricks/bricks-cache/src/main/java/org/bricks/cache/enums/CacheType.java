@@ -43,6 +43,16 @@ public enum CacheType
     /**
      * 同时开启
      */
-    BOTH
+    BOTH,
+
+    /**
+     * 堆外缓存
+     */
+    OFF_HEAP,
+
+    /**
+     * 本地缓存、堆外缓存和redis三级
+     */
+    ALL
 
 }
@@ -21,6 +21,13 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bricks.cache.bean.GenerationKey;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 
@@ -43,48 +50,142 @@ public abstract class AbstractCacheService implements CacheService
      */
     protected CacheManager cacheManager;
 
+    /**
+     * 缓存代数 Map&lt;缓存名, 代数&gt;
+     */
+    private final Map<String, AtomicLong> generationMap = new ConcurrentHashMap<>();
+
     @Override
-    public void put(String cacheName, String key, Object value)
+    public void put(String cacheName, Object key, Object value)
     {
         if (key != null && value != null)
         {
-            ofNullable(getCache(cacheName)).ifPresent(cache -> cache.put(key, value));
+            ofNullable(getCache(cacheName)).ifPresent(cache -> cache.put(generationKey(cacheName, key), value));
         }
     }
 
     @Override
     @SuppressWarnings(UNCHECKED)
-    public <T> T get(String cacheName, String key)
+    public <T> T get(String cacheName, Object key)
     {
         return ofNullable(key).map(k -> getCache(cacheName))
-                .map(cache -> cache.get(key))
+                .map(cache -> cache.get(generationKey(cacheName, key)))
                 .map(wrapper -> (T) wrapper.get())
                 .orElse(null);
     }
 
     @Override
-    public void delete(String cacheName, String key)
+    public void putAll(String cacheName, Map<?, ?> map)
     {
-        ofNullable(getCache(cacheName)).ifPresent(cache -> cache.evict(key));
+        map.forEach((key, value) -> put(cacheName, key, value));
     }
 
     @Override
-    public void clear(String cacheName, String key)
+    public <T> Map<Object, T> getAll(String cacheName, Collection<?> keys)
+    {
+        Map<Object, T> map = new LinkedHashMap<>();
+        for (Object key : keys)
+        {
+            T value = get(cacheName, key);
+            if (value != null)
+            {
+                map.put(key, value);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public void delete(String cacheName, Object key)
+    {
+        ofNullable(getCache(cacheName)).ifPresent(cache -> cache.evict(generationKey(cacheName, key)));
+    }
+
+    @Override
+    public void clear(String cacheName, Object key)
     {
         Cache cache = getCache(cacheName);
         if (cache != null)
         {
-            if (isBlank(key))
+            if (key == null || isBlank(key.toString()))
             {
-                cache.clear();
+                if (isGenerational())
+                {
+                    nextGeneration(cacheName);
+                }
+                else
+                {
+                    cache.clear();
+                }
             }
             else
             {
-                cache.evict(key);
+                cache.evict(generationKey(cacheName, key));
             }
         }
     }
 
+    @Override
+    public void clearAll()
+    {
+        cacheManager.getCacheNames()
+                .forEach(cacheName -> clear(cacheName, null));
+    }
+
+    @Override
+    public long getGeneration(String cacheName)
+    {
+        AtomicLong generation = generationMap.get(cacheName(cacheName));
+        return generation != null ? generation.get() : 0;
+    }
+
+    @Override
+    public void setGeneration(String cacheName, long generation)
+    {
+        if (!isGenerational())
+        {
+            return;
+        }
+        generationMap.computeIfAbsent(cacheName(cacheName), n -> new AtomicLong())
+                .accumulateAndGet(generation, Math::max);
+    }
+
+    /**
+     * 清空时是否只增加代数。代数只保存在本进程，重启后归零，只适用于随进程清空的本地缓存，
+     * 默认false，远程缓存清空时直接删除
+     *
+     * @return 是否使用代数
+     */
+    protected boolean isGenerational()
+    {
+        return false;
+    }
+
+    /**
+     * 增加缓存代数
+     *
+     * @param cacheName 缓存名
+     * @return 新的代数
+     */
+    protected long nextGeneration(String cacheName)
+    {
+        return generationMap.computeIfAbsent(cacheName(cacheName), n -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    /**
+     * 带代数的key，代数为0时使用原始key
+     *
+     * @param cacheName 缓存名
+     * @param key 键
+     * @return 缓存中的key
+     */
+    protected Object generationKey(String cacheName, Object key)
+    {
+        long generation = getGeneration(cacheName);
+        return generation == 0 ? key : new GenerationKey(generation, key);
+    }
+
     /**
      * 获取缓存库
      *
@@ -93,7 +194,18 @@ public abstract class AbstractCacheService implements CacheService
      */
     protected Cache getCache(String cacheName)
     {
-        return cacheManager.getCache(isNotBlank(cacheName) ? cacheName : DEFAULT_CACHE);
+        return cacheManager.getCache(cacheName(cacheName));
+    }
+
+    /**
+     * 缓存名，为空时使用默认缓存
+     *
+     * @param cacheName 缓存名
+     * @return 缓存名
+     */
+    private String cacheName(String cacheName)
+    {
+        return isNotBlank(cacheName) ? cacheName : DEFAULT_CACHE;
     }
 
 }
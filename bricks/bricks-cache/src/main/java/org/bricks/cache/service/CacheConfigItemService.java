@@ -56,7 +56,7 @@ public class CacheConfigItemService
     private long refresh = 100;
 
     /**
-     * 配置列表
+     * 按缓存名的配置列表，每个缓存单独创建
      */
     private List<CacheConfigItem> items;
 
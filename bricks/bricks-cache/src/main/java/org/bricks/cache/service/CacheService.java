@@ -16,6 +16,9 @@
 
 package org.bricks.cache.service;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * 缓存
  *
@@ -32,7 +35,7 @@ public interface CacheService
      * @param key 键
      * @param value 对象
      */
-    void put(String cacheName, String key, Object value);
+    void put(String cacheName, Object key, Object value);
 
     /**
      * 获取缓存对象
@@ -42,7 +45,25 @@ public interface CacheService
      * @param <T> 类型
      * @return 对象
      */
-    <T> T get(String cacheName, String key);
+    <T> T get(String cacheName, Object key);
+
+    /**
+     * 批量缓存对象，远程缓存应一次请求写入
+     *
+     * @param cacheName 缓存名
+     * @param map Map&lt;键, 对象&gt;
+     */
+    void putAll(String cacheName, Map<?, ?> map);
+
+    /**
+     * 批量获取缓存对象，远程缓存应一次请求读取
+     *
+     * @param cacheName 缓存名
+     * @param keys 键
+     * @param <T> 类型
+     * @return 命中的对象 Map&lt;键, 对象&gt;，按键的顺序
+     */
+    <T> Map<Object, T> getAll(String cacheName, Collection<?> keys);
 
     /**
      * 删除keys
@@ -50,23 +71,44 @@ public interface CacheService
      * @param cacheName 缓存名
      * @param key 键
      */
-    void delete(String cacheName, String key);
+    void delete(String cacheName, Object key);
 
     /**
-     * 清空缓冲区
+     * 清空缓冲区，key为空时本地缓存增加缓存代数，不遍历删除，其他缓存直接清空
      *
      * @param cacheName 缓存名
      * @param key 键
      */
-    void clear(String cacheName, String key);
+    void clear(String cacheName, Object key);
 
     /**
-     * 同步分布式缓存
+     * 清空全部缓存
+     */
+    void clearAll();
+
+    /**
+     * 同步分布式缓存，key为null时表示清空，value为清空后的代数
      *
      * @param cacheName 缓存名
      * @param key 键
      * @param value 值
      */
-    void sync(String cacheName, String key, Object value);
+    void sync(String cacheName, Object key, Object value);
+
+    /**
+     * 当前缓存代数，代数作为键的一部分
+     *
+     * @param cacheName 缓存名
+     * @return 代数
+     */
+    long getGeneration(String cacheName);
+
+    /**
+     * 设置缓存代数，只增不减，接收其他节点的清空时使用，不使用代数的缓存忽略
+     *
+     * @param cacheName 缓存名
+     * @param generation 代数
+     */
+    void setGeneration(String cacheName, long generation);
 
 }
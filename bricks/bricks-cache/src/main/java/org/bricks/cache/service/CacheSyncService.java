@@ -0,0 +1,272 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.bricks.utils.StringUtils.generateUUID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.bricks.cache.bean.CacheMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 本地缓存失效同步，写入和清空时向其他节点批量发布失效消息，收到消息后删除本地副本。
+ * 消息只由发送线程在锁外发送，批次顺序与序号一致。按节点序号检查丢失的消息，有丢失时清空全部本地缓存
+ *
+ * @author fuzy
+ *
+ */
+@Slf4j
+@Service("cacheSyncService")
+public class CacheSyncService
+{
+
+    /**
+     * 消息传输，没有时使用进程内传输
+     */
+    @Qualifier("cacheTransport")
+    @Autowired(required = false)
+    private CacheTransport cacheTransport;
+
+    /**
+     * 批量大小，待发送的消息达到此数量时立即发送
+     */
+    @Value("${bricks.cache.sync.batchSize:100}")
+    private int batchSize;
+
+    /**
+     * 定时发送间隔(毫秒)
+     */
+    @Value("${bricks.cache.sync.interval:20}")
+    private long interval;
+
+    /**
+     * 本节点
+     */
+    private final String node = generateUUID();
+
+    /**
+     * 待发送的消息
+     */
+    private final List<CacheMessage> pending = new ArrayList<>();
+
+    /**
+     * 本节点序号
+     */
+    private long sequence;
+
+    /**
+     * 是否已提交立即发送
+     */
+    private boolean sending;
+
+    /**
+     * 收到的序号 Map&lt;节点, 序号&gt;
+     */
+    private final Map<String, Long> sequenceMap = new ConcurrentHashMap<>();
+
+    /**
+     * 订阅的本地缓存
+     */
+    private final List<CacheService> cacheServices = new CopyOnWriteArrayList<>();
+
+    /**
+     * 发送线程，定时发送和立即发送都在此线程执行
+     */
+    private final ScheduledExecutorService scheduler = newSingleThreadScheduledExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "cache-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 初始化
+     */
+    @PostConstruct
+    public void init()
+    {
+        cacheTransport = ofNullable(cacheTransport).orElseGet(LoopbackCacheTransport::new);
+        cacheTransport.subscribe(this::receive);
+        scheduler.scheduleWithFixedDelay(this::send, interval, interval, MILLISECONDS);
+    }
+
+    /**
+     * 发送剩余消息并停止发送线程
+     */
+    @PreDestroy
+    public void destroy()
+    {
+        flush();
+        scheduler.shutdown();
+        try
+        {
+            if (!scheduler.awaitTermination(5, SECONDS))
+            {
+                log.warn("cache sync sender not terminated");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+
+    /**
+     * 订阅其他节点的失效消息
+     *
+     * @param cacheService 本地缓存
+     */
+    public void subscribe(CacheService cacheService)
+    {
+        cacheServices.add(cacheService);
+    }
+
+    /**
+     * 发布失效消息
+     *
+     * @param cacheName 缓存名
+     * @param key 键，null为清空
+     * @param generation 清空后的代数，不是清空时为null
+     */
+    public void publish(String cacheName, Object key, Object generation)
+    {
+        boolean full;
+        synchronized (pending)
+        {
+            pending.add(new CacheMessage().setNode(node)
+                    .setSequence(++sequence)
+                    .setCacheName(cacheName)
+                    .setKey(key)
+                    .setValue(generation));
+            full = pending.size() >= batchSize && !sending;
+            sending = sending || full;
+        }
+        if (full)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * 提交立即发送，由发送线程执行，不阻塞调用线程
+     */
+    public void flush()
+    {
+        try
+        {
+            scheduler.execute(this::send);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.warn("cache sync sender stopped, pending messages not published");
+        }
+    }
+
+    /**
+     * 在发送线程中取出待发送的消息，锁外发送
+     */
+    private void send()
+    {
+        List<CacheMessage> messages;
+        synchronized (pending)
+        {
+            sending = false;
+            if (pending.isEmpty())
+            {
+                return;
+            }
+            messages = new ArrayList<>(pending);
+            pending.clear();
+        }
+        try
+        {
+            cacheTransport.publish(messages);
+        }
+        catch (RuntimeException e)
+        {
+            // 其他节点会从序号发现丢失
+            log.warn("publish {} cache messages failed: {}", messages.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 清空本地缓存，本地代数至少加一，再与发送节点的代数取大
+     *
+     * @param cacheService 本地缓存
+     * @param message 清空消息
+     */
+    private void clear(CacheService cacheService, CacheMessage message)
+    {
+        cacheService.clear(message.getCacheName(), null);
+        if (message.getValue() instanceof Number)
+        {
+            cacheService.setGeneration(message.getCacheName(), ((Number) message.getValue()).longValue());
+        }
+    }
+
+    /**
+     * 处理收到的消息，忽略本节点的消息
+     *
+     * @param messages 消息列表
+     */
+    private void receive(List<CacheMessage> messages)
+    {
+        for (CacheMessage message : messages)
+        {
+            if (node.equals(message.getNode()))
+            {
+                continue;
+            }
+            Long last = sequenceMap.put(message.getNode(), message.getSequence());
+            if (last != null && message.getSequence() != last + 1)
+            {
+                log.warn("cache messages from {} lost, expect {} but {}, clear all", message.getNode(), last + 1,
+                        message.getSequence());
+                cacheServices.forEach(CacheService::clearAll);
+            }
+            else if (message.getKey() == null)
+            {
+                cacheServices.forEach(cacheService -> clear(cacheService, message));
+            }
+            else
+            {
+                cacheServices.forEach(cacheService -> cacheService.delete(message.getCacheName(), message.getKey()));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.bricks.cache.bean.CacheMessage;
+
+/**
+ * 缓存消息传输，如redis发布订阅。跨节点时消息需序列化，key可能是可序列化的CacheKey
+ *
+ * @author fuzy
+ *
+ */
+public interface CacheTransport
+{
+
+    /**
+     * 发布一批消息，同一节点的批次需按顺序送达
+     *
+     * @param messages 消息列表
+     */
+    void publish(List<CacheMessage> messages);
+
+    /**
+     * 订阅消息，包括本节点发布的消息
+     *
+     * @param consumer 消息列表处理
+     */
+    void subscribe(Consumer<List<CacheMessage>> consumer);
+
+}
@@ -16,9 +16,19 @@
 
 package org.bricks.cache.service;
 
+import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
 import org.springframework.stereotype.Service;
 
 /**
@@ -31,6 +41,21 @@ import org.springframework.stereotype.Service;
 public class CaffeineService extends AbstractCacheService
 {
 
+    /**
+     * 本地缓存失效同步
+     */
+    @Resource
+    private CacheSyncService cacheSyncService;
+
+    /**
+     * 订阅其他节点的失效消息
+     */
+    @PostConstruct
+    public void init()
+    {
+        cacheSyncService.subscribe(this);
+    }
+
     /**
      * 注入缓存管理器
      *
@@ -43,9 +68,70 @@ public class CaffeineService extends AbstractCacheService
     }
 
     @Override
-    public void sync(String cacheName, String key, Object value)
+    public void putAll(String cacheName, Map<?, ?> map)
+    {
+        Cache cache = getCache(cacheName);
+        if (cache instanceof CaffeineCache)
+        {
+            Map<Object, Object> storeMap = new LinkedHashMap<>();
+            map.forEach((key, value) ->
+            {
+                if (key != null && value != null)
+                {
+                    storeMap.put(generationKey(cacheName, key), value);
+                }
+            });
+            ((CaffeineCache) cache).getNativeCache()
+                    .putAll(storeMap);
+        }
+        else
+        {
+            super.putAll(cacheName, map);
+        }
+    }
+
+    @Override
+    @SuppressWarnings(UNCHECKED)
+    public <T> Map<Object, T> getAll(String cacheName, Collection<?> keys)
+    {
+        Cache cache = getCache(cacheName);
+        if (!(cache instanceof CaffeineCache))
+        {
+            return super.getAll(cacheName, keys);
+        }
+        Map<Object, Object> keyMap = new LinkedHashMap<>();
+        for (Object key : keys)
+        {
+            if (key != null)
+            {
+                keyMap.put(generationKey(cacheName, key), key);
+            }
+        }
+        Map<Object, Object> present = ((CaffeineCache) cache).getNativeCache()
+                .getAllPresent(keyMap.keySet());
+        Map<Object, T> map = new LinkedHashMap<>();
+        keyMap.forEach((storeKey, key) ->
+        {
+            Object value = present.get(storeKey);
+            if (value != null && value != NullValue.INSTANCE)
+            {
+                map.put(key, (T) value);
+            }
+        });
+        return map;
+    }
+
+    @Override
+    public void sync(String cacheName, Object key, Object value)
+    {
+        // 只通知其他节点删除本地副本，只在清空时传输代数
+        cacheSyncService.publish(cacheName, key, key == null ? value : null);
+    }
+
+    @Override
+    protected boolean isGenerational()
     {
-        // do nth.
+        return true;
     }
 
 }
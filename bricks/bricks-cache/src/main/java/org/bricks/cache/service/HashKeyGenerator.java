@@ -0,0 +1,414 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+import javax.annotation.Resource;
+
+import org.bricks.cache.bean.CacheKey;
+import org.bricks.data.json.JacksonJsonService;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * hash缓存key生成器，参数按类型紧凑编码为字节(每种类型独立标记)后计算murmur3 128位hash，用于远程缓存。
+ * 无序集合与顺序无关，其他对象按json编码
+ *
+ * @author fuzy
+ *
+ */
+@Component("hashKeyGenerator")
+public class HashKeyGenerator implements KeyGenerator
+{
+
+    /**
+     * hash算法
+     */
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    /**
+     * null
+     */
+    private static final byte NULL_TAG = 0;
+
+    /**
+     * 字符串
+     */
+    private static final byte STRING_TAG = 1;
+
+    /**
+     * 整数
+     */
+    private static final byte LONG_TAG = 2;
+
+    /**
+     * 浮点数
+     */
+    private static final byte DOUBLE_TAG = 3;
+
+    /**
+     * 布尔
+     */
+    private static final byte BOOLEAN_TAG = 4;
+
+    /**
+     * 字节数组
+     */
+    private static final byte BYTES_TAG = 5;
+
+    /**
+     * 有序集合、数组
+     */
+    private static final byte LIST_TAG = 6;
+
+    /**
+     * 无序集合
+     */
+    private static final byte SET_TAG = 7;
+
+    /**
+     * Map
+     */
+    private static final byte MAP_TAG = 8;
+
+    /**
+     * 其他对象
+     */
+    private static final byte OBJECT_TAG = 9;
+
+    /**
+     * 枚举
+     */
+    private static final byte ENUM_TAG = 10;
+
+    /**
+     * 日期时间
+     */
+    private static final byte TEMPORAL_TAG = 11;
+
+    /**
+     * BigDecimal、BigInteger
+     */
+    private static final byte DECIMAL_TAG = 12;
+
+    /**
+     * Date
+     */
+    private static final byte DATE_TAG = 13;
+
+    /**
+     * 字符
+     */
+    private static final byte CHAR_TAG = 14;
+
+    /**
+     * json
+     */
+    @Resource
+    private JacksonJsonService jacksonJsonService;
+
+    @Override
+    public Object generate(Object target, Method method, Object... params)
+    {
+        return generate(target.getClass(), method.getName(), params);
+    }
+
+    /**
+     * 结构化key转为hash key
+     *
+     * @param key 结构化key
+     * @return hash key
+     */
+    public String generate(CacheKey key)
+    {
+        return generate(key.getClazz(), key.getMethod(), key.getArgs());
+    }
+
+    private String generate(Class<?> clazz, String method, Object[] params)
+    {
+        Encoder encoder = new Encoder();
+        put(encoder, params);
+        return clazz.getSimpleName() + "." + method + ":" + encoder.hash();
+    }
+
+    /**
+     * 写入参数编码
+     *
+     * @param encoder 编码
+     * @param value 参数
+     */
+    private void put(Encoder encoder, Object value)
+    {
+        if (value == null)
+        {
+            encoder.putByte(NULL_TAG);
+        }
+        else if (value instanceof String)
+        {
+            encoder.putByte(STRING_TAG)
+                    .putString((String) value);
+        }
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+        {
+            encoder.putByte(LONG_TAG)
+                    .putLong(((Number) value).longValue());
+        }
+        else if (value instanceof CharSequence)
+        {
+            encoder.putByte(STRING_TAG)
+                    .putString(value.toString());
+        }
+        else if (value instanceof Character)
+        {
+            encoder.putByte(CHAR_TAG)
+                    .putInt((Character) value);
+        }
+        else if (value instanceof Enum)
+        {
+            encoder.putByte(ENUM_TAG)
+                    .putString(((Enum<?>) value).getDeclaringClass()
+                            .getName())
+                    .putString(((Enum<?>) value).name());
+        }
+        else if (value instanceof TemporalAccessor)
+        {
+            encoder.putByte(TEMPORAL_TAG)
+                    .putString(value.getClass()
+                            .getName())
+                    .putString(value.toString());
+        }
+        else if (value instanceof Double || value instanceof Float)
+        {
+            encoder.putByte(DOUBLE_TAG)
+                    .putLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        }
+        else if (value instanceof Number)
+        {
+            // BigDecimal、BigInteger
+            encoder.putByte(DECIMAL_TAG)
+                    .putString(value.getClass()
+                            .getName())
+                    .putString(value.toString());
+        }
+        else if (value instanceof Boolean)
+        {
+            encoder.putByte(BOOLEAN_TAG)
+                    .putByte((byte) ((Boolean) value ? 1 : 0));
+        }
+        else if (value instanceof Date)
+        {
+            encoder.putByte(DATE_TAG)
+                    .putLong(((Date) value).getTime());
+        }
+        else if (value instanceof byte[])
+        {
+            byte[] bytes = (byte[]) value;
+            encoder.putByte(BYTES_TAG)
+                    .putInt(bytes.length)
+                    .putBytes(bytes);
+        }
+        else if (value.getClass()
+                .isArray())
+        {
+            int length = Array.getLength(value);
+            encoder.putByte(LIST_TAG)
+                    .putInt(length);
+            for (int i = 0; i < length; i++)
+            {
+                put(encoder, Array.get(value, i));
+            }
+        }
+        else if (value instanceof List || value instanceof SortedSet)
+        {
+            Collection<?> collection = (Collection<?>) value;
+            encoder.putByte(LIST_TAG)
+                    .putInt(collection.size());
+            collection.forEach(element -> put(encoder, element));
+        }
+        else if (value instanceof Collection)
+        {
+            Collection<?> collection = (Collection<?>) value;
+            long sum = 0;
+            for (Object element : collection)
+            {
+                sum += hash(element, null, false);
+            }
+            encoder.putByte(SET_TAG)
+                    .putInt(collection.size())
+                    .putLong(sum);
+        }
+        else if (value instanceof Map)
+        {
+            putMap(encoder, (Map<?, ?>) value);
+        }
+        else
+        {
+            encoder.putByte(OBJECT_TAG)
+                    .putString(value.getClass()
+                            .getName())
+                    .putString(jacksonJsonService.output(value));
+        }
+    }
+
+    /**
+     * 写入Map编码，有序Map按顺序，其他Map与顺序无关
+     *
+     * @param encoder 编码
+     * @param map Map
+     */
+    private void putMap(Encoder encoder, Map<?, ?> map)
+    {
+        encoder.putByte(MAP_TAG)
+                .putInt(map.size());
+        if (map instanceof SortedMap)
+        {
+            map.forEach((k, v) ->
+            {
+                put(encoder, k);
+                put(encoder, v);
+            });
+        }
+        else
+        {
+            long sum = 0;
+            for (Entry<?, ?> entry : map.entrySet())
+            {
+                sum += hash(entry.getKey(), entry.getValue(), true);
+            }
+            encoder.putLong(sum);
+        }
+    }
+
+    /**
+     * 单个元素或Map项的hash，用于无序集合
+     *
+     * @param key 元素或键
+     * @param value 值
+     * @param entry 是否Map项
+     * @return hash
+     */
+    private long hash(Object key, Object value, boolean entry)
+    {
+        Encoder encoder = new Encoder();
+        put(encoder, key);
+        if (entry)
+        {
+            put(encoder, value);
+        }
+        return encoder.hash()
+                .asLong();
+    }
+
+    /**
+     * 字节编码，小端
+     */
+    private static class Encoder
+    {
+
+        /**
+         * 缓冲区
+         */
+        private byte[] buffer = new byte[64];
+
+        /**
+         * 长度
+         */
+        private int length;
+
+        /**
+         * @return hash
+         */
+        HashCode hash()
+        {
+            return HASH.hashBytes(buffer, 0, length);
+        }
+
+        Encoder putByte(byte b)
+        {
+            ensure(1);
+            buffer[length++] = b;
+            return this;
+        }
+
+        Encoder putInt(int i)
+        {
+            ensure(4);
+            for (int shift = 0; shift < 32; shift += 8)
+            {
+                buffer[length++] = (byte) (i >>> shift);
+            }
+            return this;
+        }
+
+        Encoder putLong(long l)
+        {
+            ensure(8);
+            for (int shift = 0; shift < 64; shift += 8)
+            {
+                buffer[length++] = (byte) (l >>> shift);
+            }
+            return this;
+        }
+
+        Encoder putBytes(byte[] bytes)
+        {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+            return this;
+        }
+
+        Encoder putString(String s)
+        {
+            int size = s.length();
+            putInt(size);
+            ensure(size << 1);
+            for (int i = 0; i < size; i++)
+            {
+                char c = s.charAt(i);
+                buffer[length++] = (byte) c;
+                buffer[length++] = (byte) (c >>> 8);
+            }
+            return this;
+        }
+
+        private void ensure(int size)
+        {
+            if (length + size > buffer.length)
+            {
+                buffer = Arrays.copyOf(buffer, Math.max(length + size, buffer.length << 1));
+            }
+        }
+
+    }
+
+}
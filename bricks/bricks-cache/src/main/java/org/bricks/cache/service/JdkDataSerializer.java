@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import java.io.Serializable;
+
+import org.bricks.data.serializer.ByteDataSerializer;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * jdk序列化，堆外缓存没有匹配的序列化时使用
+ *
+ * @author fuzy
+ *
+ */
+public class JdkDataSerializer implements ByteDataSerializer<Serializable>
+{
+
+    @Override
+    public Class<Serializable> getClazz()
+    {
+        return Serializable.class;
+    }
+
+    @Override
+    public byte[] serialize(Serializable data)
+    {
+        return SerializationUtils.serialize(data);
+    }
+
+    @Override
+    public Serializable deserialize(byte[] bytes)
+    {
+        return (Serializable) SerializationUtils.deserialize(bytes);
+    }
+
+}
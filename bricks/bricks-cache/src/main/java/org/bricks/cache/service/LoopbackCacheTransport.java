@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.bricks.cache.bean.CacheMessage;
+
+/**
+ * 进程内缓存消息传输，同步投递给所有订阅者，单节点或测试时使用
+ *
+ * @author fuzy
+ *
+ */
+public class LoopbackCacheTransport implements CacheTransport
+{
+
+    /**
+     * 订阅者
+     */
+    private final List<Consumer<List<CacheMessage>>> consumers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<CacheMessage> messages)
+    {
+        consumers.forEach(consumer -> consumer.accept(messages));
+    }
+
+    @Override
+    public void subscribe(Consumer<List<CacheMessage>> consumer)
+    {
+        consumers.add(consumer);
+    }
+
+}
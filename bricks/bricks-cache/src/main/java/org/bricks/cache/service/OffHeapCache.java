@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.bricks.data.serializer.ByteDataSerializer;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 堆外缓存，值序列化后写入堆外存储，首字节为序列化在列表中的下标
+ *
+ * @author fuzy
+ *
+ */
+@Slf4j
+public class OffHeapCache extends AbstractValueAdaptingCache
+{
+
+    /**
+     * 缓存名
+     */
+    private final String name;
+
+    /**
+     * 堆外存储
+     */
+    private final OffHeapStore store;
+
+    /**
+     * 序列化，按顺序匹配值的类型
+     */
+    private final List<ByteDataSerializer<?>> serializers;
+
+    /**
+     * 构造方法
+     *
+     * @param name 缓存名
+     * @param store 堆外存储
+     * @param serializers 序列化
+     */
+    public OffHeapCache(String name, OffHeapStore store, List<ByteDataSerializer<?>> serializers)
+    {
+        super(true);
+        this.name = name;
+        this.store = store;
+        this.serializers = serializers;
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache()
+    {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key)
+    {
+        byte[] bytes = store.get(name, key);
+        if (bytes == null)
+        {
+            return null;
+        }
+        byte[] data = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, data, 0, data.length);
+        try
+        {
+            return serializers.get(bytes[0])
+                    .deserialize(data);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("cache {} value deserialize failed, evict: {}", name, e.getMessage());
+            store.remove(name, key);
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings(UNCHECKED)
+    public <T> T get(Object key, Callable<T> valueLoader)
+    {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null)
+        {
+            return (T) wrapper.get();
+        }
+        T value;
+        try
+        {
+            value = valueLoader.call();
+        }
+        catch (Exception e)
+        {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings(UNCHECKED)
+    public void put(Object key, Object value)
+    {
+        Object storeValue = toStoreValue(value);
+        for (int i = 0; i < serializers.size(); i++)
+        {
+            ByteDataSerializer<Object> serializer = (ByteDataSerializer<Object>) serializers.get(i);
+            if (serializer.getClazz()
+                    .isInstance(storeValue))
+            {
+                byte[] data;
+                try
+                {
+                    data = serializer.serialize(storeValue);
+                }
+                catch (RuntimeException e)
+                {
+                    // 缓存写入失败不能影响方法结果
+                    log.warn("cache {} value {} serialize failed, skip off-heap: {}", name, storeValue.getClass(),
+                            e.getMessage());
+                    store.remove(name, key);
+                    return;
+                }
+                byte[] bytes = new byte[data.length + 1];
+                bytes[0] = (byte) i;
+                System.arraycopy(data, 0, bytes, 1, data.length);
+                if (!store.put(name, key, bytes))
+                {
+                    log.debug("cache {} value of {} bytes exceeds off-heap segment", name, bytes.length);
+                }
+                return;
+            }
+        }
+        log.debug("cache {} value {} has no serializer, skip off-heap", name, storeValue.getClass());
+        store.remove(name, key);
+    }
+
+    @Override
+    public void evict(Object key)
+    {
+        store.remove(name, key);
+    }
+
+    @Override
+    public void clear()
+    {
+        store.clear(name);
+    }
+
+}
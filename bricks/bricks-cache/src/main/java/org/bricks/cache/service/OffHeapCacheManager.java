@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import static java.util.Collections.emptyList;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.bricks.data.serializer.ByteDataSerializer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+
+/**
+ * 堆外缓存管理器，全部缓存共用一个堆外存储和容量，按名称动态创建缓存
+ *
+ * @author fuzy
+ *
+ */
+public class OffHeapCacheManager extends AbstractCacheManager
+{
+
+    /**
+     * 堆外存储
+     */
+    private final OffHeapStore store;
+
+    /**
+     * 序列化
+     */
+    private final List<ByteDataSerializer<?>> serializers;
+
+    /**
+     * 构造方法
+     *
+     * @param store 堆外存储
+     * @param serializers 序列化，按顺序匹配值的类型
+     */
+    public OffHeapCacheManager(OffHeapStore store, List<ByteDataSerializer<?>> serializers)
+    {
+        this.store = store;
+        this.serializers = serializers;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches()
+    {
+        return emptyList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name)
+    {
+        return new OffHeapCache(name, store, serializers);
+    }
+
+}
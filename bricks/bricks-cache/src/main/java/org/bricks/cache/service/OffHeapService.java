@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * 堆外缓存接口
+ *
+ * @author fuzy
+ *
+ */
+@Service("offHeapService")
+public class OffHeapService extends AbstractCacheService
+{
+
+    /**
+     * 本地缓存失效同步
+     */
+    @Resource
+    private CacheSyncService cacheSyncService;
+
+    /**
+     * 注入缓存管理器
+     *
+     * @param offHeapCacheManager 缓存管理器
+     */
+    @Resource(name = "offHeapCacheManager")
+    public void setCacheManager(CacheManager offHeapCacheManager)
+    {
+        cacheManager = offHeapCacheManager;
+    }
+
+    /**
+     * 订阅其他节点的失效消息
+     */
+    @PostConstruct
+    public void init()
+    {
+        cacheSyncService.subscribe(this);
+    }
+
+    @Override
+    public void sync(String cacheName, Object key, Object value)
+    {
+        cacheSyncService.publish(cacheName, key, key == null ? value : null);
+    }
+
+    @Override
+    protected boolean isGenerational()
+    {
+        return true;
+    }
+
+}
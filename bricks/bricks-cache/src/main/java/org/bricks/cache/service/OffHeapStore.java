@@ -0,0 +1,377 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import static java.lang.Math.min;
+import static java.nio.ByteBuffer.allocateDirect;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 堆外存储，按键分段，每段一块直接内存切成定长块，值占用若干块，超出容量时按LRU淘汰。
+ * 索引在堆内，值在堆外，直接内存在首次写入时分配
+ *
+ * @author fuzy
+ *
+ */
+public class OffHeapStore
+{
+
+    /**
+     * 块大小
+     */
+    private final int blockSize;
+
+    /**
+     * 分段
+     */
+    private final Segment[] segments;
+
+    /**
+     * 构造方法
+     *
+     * @param capacity 总容量(字节)
+     * @param segmentCount 分段数
+     * @param blockSize 块大小(字节)
+     */
+    public OffHeapStore(long capacity, int segmentCount, int blockSize)
+    {
+        this.blockSize = blockSize;
+        int blocks = (int) min(Integer.MAX_VALUE / blockSize, capacity / segmentCount / blockSize);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++)
+        {
+            segments[i] = new Segment(blocks);
+        }
+    }
+
+    /**
+     * 读取
+     *
+     * @param name 缓存名
+     * @param key 键
+     * @return 值，不存在时为null
+     */
+    public byte[] get(String name, Object key)
+    {
+        StoreKey storeKey = new StoreKey(name, key);
+        return segment(storeKey).get(storeKey);
+    }
+
+    /**
+     * 写入，值超过分段容量时不写入并删除旧值
+     *
+     * @param name 缓存名
+     * @param key 键
+     * @param bytes 值
+     * @return 是否写入
+     */
+    public boolean put(String name, Object key, byte[] bytes)
+    {
+        StoreKey storeKey = new StoreKey(name, key);
+        return segment(storeKey).put(storeKey, bytes);
+    }
+
+    /**
+     * 删除
+     *
+     * @param name 缓存名
+     * @param key 键
+     */
+    public void remove(String name, Object key)
+    {
+        StoreKey storeKey = new StoreKey(name, key);
+        segment(storeKey).remove(storeKey);
+    }
+
+    /**
+     * 删除缓存名下的全部值
+     *
+     * @param name 缓存名
+     */
+    public void clear(String name)
+    {
+        for (Segment segment : segments)
+        {
+            segment.clear(name);
+        }
+    }
+
+    /**
+     * @return 条数
+     */
+    public long size()
+    {
+        long size = 0;
+        for (Segment segment : segments)
+        {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return 已占用的字节数
+     */
+    public long usedBytes()
+    {
+        long used = 0;
+        for (Segment segment : segments)
+        {
+            used += segment.usedBlocks();
+        }
+        return used * blockSize;
+    }
+
+    /**
+     * 键所在的分段
+     *
+     * @param storeKey 键
+     * @return 分段
+     */
+    private Segment segment(StoreKey storeKey)
+    {
+        int hash = storeKey.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * 分段，读写都更新LRU顺序，加锁执行
+     */
+    private class Segment
+    {
+
+        /**
+         * 块数
+         */
+        private final int blocks;
+
+        /**
+         * 空闲块栈
+         */
+        private final int[] free;
+
+        /**
+         * 空闲块数
+         */
+        private int freeCount;
+
+        /**
+         * 直接内存
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * 索引，按访问顺序排列，最久未访问的在前
+         */
+        private final LinkedHashMap<StoreKey, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * 构造方法
+         *
+         * @param blocks 块数
+         */
+        Segment(int blocks)
+        {
+            this.blocks = blocks;
+            free = new int[blocks];
+        }
+
+        synchronized byte[] get(StoreKey key)
+        {
+            Entry entry = index.get(key);
+            if (entry == null)
+            {
+                return null;
+            }
+            byte[] bytes = new byte[entry.length];
+            for (int i = 0, offset = 0; i < entry.blocks.length; i++, offset += blockSize)
+            {
+                buffer.get(entry.blocks[i] * blockSize, bytes, offset, min(blockSize, entry.length - offset));
+            }
+            return bytes;
+        }
+
+        synchronized boolean put(StoreKey key, byte[] bytes)
+        {
+            release(index.remove(key));
+            int count = (bytes.length + blockSize - 1) / blockSize;
+            if (count > blocks)
+            {
+                return false;
+            }
+            if (buffer == null)
+            {
+                buffer = allocateDirect(blocks * blockSize);
+                for (int i = 0; i < blocks; i++)
+                {
+                    free[i] = blocks - 1 - i;
+                }
+                freeCount = blocks;
+            }
+            Iterator<Entry> iterator = index.values()
+                    .iterator();
+            while (freeCount < count)
+            {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                release(eldest);
+            }
+            int[] entryBlocks = new int[count];
+            for (int i = 0, offset = 0; i < count; i++, offset += blockSize)
+            {
+                entryBlocks[i] = free[--freeCount];
+                buffer.put(entryBlocks[i] * blockSize, bytes, offset, min(blockSize, bytes.length - offset));
+            }
+            index.put(key, new Entry(bytes.length, entryBlocks));
+            return true;
+        }
+
+        synchronized void remove(StoreKey key)
+        {
+            release(index.remove(key));
+        }
+
+        synchronized void clear(String name)
+        {
+            Iterator<Map.Entry<StoreKey, Entry>> iterator = index.entrySet()
+                    .iterator();
+            while (iterator.hasNext())
+            {
+                Map.Entry<StoreKey, Entry> entry = iterator.next();
+                if (entry.getKey().name.equals(name))
+                {
+                    iterator.remove();
+                    release(entry.getValue());
+                }
+            }
+        }
+
+        synchronized int size()
+        {
+            return index.size();
+        }
+
+        synchronized int usedBlocks()
+        {
+            return buffer == null ? 0 : blocks - freeCount;
+        }
+
+        /**
+         * 归还块
+         *
+         * @param entry 条目
+         */
+        private void release(Entry entry)
+        {
+            if (entry != null)
+            {
+                for (int block : entry.blocks)
+                {
+                    free[freeCount++] = block;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * 条目
+     */
+    private static class Entry
+    {
+
+        /**
+         * 字节数
+         */
+        private final int length;
+
+        /**
+         * 占用的块
+         */
+        private final int[] blocks;
+
+        /**
+         * 构造方法
+         *
+         * @param length 字节数
+         * @param blocks 占用的块
+         */
+        Entry(int length, int[] blocks)
+        {
+            this.length = length;
+            this.blocks = blocks;
+        }
+
+    }
+
+    /**
+     * 缓存名和键
+     */
+    private static class StoreKey
+    {
+
+        /**
+         * 缓存名
+         */
+        private final String name;
+
+        /**
+         * 键
+         */
+        private final Object key;
+
+        /**
+         * 构造方法
+         *
+         * @param name 缓存名
+         * @param key 键
+         */
+        StoreKey(String name, Object key)
+        {
+            this.name = name;
+            this.key = key;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * name.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof StoreKey))
+            {
+                return false;
+            }
+            StoreKey other = (StoreKey) obj;
+            return name.equals(other.name) && Objects.equals(key, other.key);
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.cache.service;
+
+import java.lang.reflect.Method;
+
+import org.bricks.cache.bean.CacheKey;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 结构化缓存key生成器，不序列化参数，用于本地缓存；远程缓存使用其hash
+ *
+ * @author fuzy
+ *
+ */
+@Component("structuralKeyGenerator")
+public class StructuralKeyGenerator implements KeyGenerator
+{
+
+    @Override
+    public Object generate(Object target, Method method, Object... params)
+    {
+        return new CacheKey(target.getClass(), method.getName(), params);
+    }
+
+}
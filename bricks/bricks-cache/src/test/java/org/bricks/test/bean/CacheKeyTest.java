@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bricks.cache.bean.CacheKey;
+import org.bricks.cache.bean.CacheMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.SerializationUtils;
+
+public class CacheKeyTest
+{
+
+    @Test
+    public void testSerialize()
+    {
+        CacheKey key = new CacheKey(CacheKeyTest.class, "find", 1L, "a", TimeUnit.SECONDS, new int[] {1, 2});
+        CacheMessage message = (CacheMessage) SerializationUtils.deserialize(SerializationUtils.serialize(
+                new CacheMessage().setCacheName("c")
+                        .setKey(key)));
+        Object copy = message.getKey();
+        assertNotSame(key, copy);
+        assertEquals(key, copy);
+        assertEquals(key.hashCode(), copy.hashCode());
+    }
+
+}
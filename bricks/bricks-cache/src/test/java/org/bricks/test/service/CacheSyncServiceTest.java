@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.service;
+
+import static java.time.Duration.ofSeconds;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.bricks.cache.bean.CacheMessage;
+import org.bricks.cache.service.CacheSyncService;
+import org.bricks.cache.service.CacheTransport;
+import org.junit.jupiter.api.Test;
+
+public class CacheSyncServiceTest
+{
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private final List<Long> sequences = new ArrayList<>();
+
+    @Test
+    public void testSendOutsideLock() throws InterruptedException
+    {
+        CacheSyncService service = new CacheSyncService();
+        setField(service, "cacheTransport", new BlockingTransport());
+        setField(service, "batchSize", 2);
+        setField(service, "interval", 60000L);
+        service.init();
+        service.publish("c", 1, null);
+        service.publish("c", 2, null);
+        assertTrue(started.await(5, SECONDS));
+        // 发送阻塞时写入线程不等待
+        assertTimeoutPreemptively(ofSeconds(1), () ->
+        {
+            for (int i = 3; i <= 20; i++)
+            {
+                service.publish("c", i, null);
+            }
+        });
+        released.countDown();
+        service.destroy();
+        // 批次按序号顺序送达
+        assertEquals(LongStream.rangeClosed(1, 20)
+                .boxed()
+                .collect(Collectors.toList()), sequences);
+    }
+
+    private class BlockingTransport implements CacheTransport
+    {
+
+        @Override
+        public void publish(List<CacheMessage> messages)
+        {
+            started.countDown();
+            try
+            {
+                released.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread()
+                        .interrupt();
+            }
+            messages.forEach(message -> sequences.add(message.getSequence()));
+        }
+
+        @Override
+        public void subscribe(Consumer<List<CacheMessage>> consumer)
+        {
+        }
+
+    }
+
+}
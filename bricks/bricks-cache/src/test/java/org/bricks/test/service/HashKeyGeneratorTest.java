@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.bricks.cache.bean.CacheKey;
+import org.bricks.cache.service.HashKeyGenerator;
+import org.junit.jupiter.api.Test;
+
+public class HashKeyGeneratorTest
+{
+
+    private final HashKeyGenerator generator = new HashKeyGenerator();
+
+    @Test
+    public void testUnordered()
+    {
+        Set<Integer> set = new LinkedHashSet<>();
+        Set<Integer> reversed = new LinkedHashSet<>();
+        Map<String, Integer> map = new LinkedHashMap<>();
+        Map<String, Integer> reversedMap = new HashMap<>();
+        for (int i = 0; i < 100; i++)
+        {
+            set.add(i);
+            reversed.add(99 - i);
+            map.put("k" + i, i);
+            reversedMap.put("k" + (99 - i), 99 - i);
+        }
+        assertEquals(generate(set), generate(reversed));
+        assertEquals(generate(map), generate(reversedMap));
+        assertEquals(generate(List.of(set, map)), generate(List.of(reversed, reversedMap)));
+        assertNotEquals(generate(set), generate(new HashSet<>(IntStream.range(0, 99)
+                .boxed()
+                .collect(Collectors.toSet()))));
+        map.put("k0", -1);
+        assertNotEquals(generate(map), generate(reversedMap));
+    }
+
+    @Test
+    public void testOrdered()
+    {
+        assertNotEquals(generate(List.of(1, 2)), generate(List.of(2, 1)));
+        assertNotEquals(generate(new int[] {1, 2}), generate(new int[] {2, 1}));
+        TreeMap<String, Integer> sorted = new TreeMap<>(Map.of("a", 1, "b", 2));
+        assertEquals(generate(sorted), generate(new TreeMap<>(Map.of("b", 2, "a", 1))));
+        assertNotEquals(generate(sorted), generate(new TreeMap<>(Map.of("a", 2, "b", 1))));
+    }
+
+    @Test
+    public void testTypes()
+    {
+        Object[] values = {"1", 1L, 1.0, new BigDecimal("1"), BigInteger.ONE, new Date(1), '1', true, null,
+                TimeUnit.SECONDS, "SECONDS", LocalDate.of(2020, 1, 1), "2020-01-01", new byte[] {1},
+                List.of(1L), Set.of(1L), Map.of(1L, 1L)};
+        Set<String> keys = new HashSet<>();
+        for (Object value : values)
+        {
+            keys.add(generate(value));
+        }
+        assertEquals(values.length, keys.size());
+        assertEquals(generate(1), generate(1L));
+        assertEquals(generate(new StringBuilder("a")), generate("a"));
+    }
+
+    private String generate(Object value)
+    {
+        return generator.generate(new CacheKey(HashKeyGeneratorTest.class, "find", value));
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.bricks.cache.service.OffHeapStore;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapStoreTest
+{
+
+    @Test
+    public void testLru()
+    {
+        OffHeapStore store = new OffHeapStore(64, 1, 16);
+        assertEquals(0, store.usedBytes());
+        for (int i = 1; i <= 4; i++)
+        {
+            assertTrue(store.put("c", i, bytes(16, i)));
+        }
+        assertNotNull(store.get("c", 1));
+        assertTrue(store.put("c", 5, bytes(16, 5)));
+        // 2最久未访问，被淘汰
+        assertNull(store.get("c", 2));
+        for (int i : new int[] {1, 3, 4, 5})
+        {
+            assertArrayEquals(bytes(16, i), store.get("c", i));
+        }
+        assertEquals(4, store.size());
+        assertEquals(64, store.usedBytes());
+    }
+
+    @Test
+    public void testBlocks()
+    {
+        OffHeapStore store = new OffHeapStore(64, 1, 16);
+        store.put("c", 1, bytes(10, 1));
+        store.put("c", 2, bytes(16, 2));
+        store.put("c", 3, bytes(16, 3));
+        // 占3块，淘汰最久的两个
+        assertTrue(store.put("c", 4, bytes(40, 4)));
+        assertNull(store.get("c", 1));
+        assertNull(store.get("c", 2));
+        assertArrayEquals(bytes(16, 3), store.get("c", 3));
+        assertArrayEquals(bytes(40, 4), store.get("c", 4));
+        // 覆盖时先归还旧块
+        assertTrue(store.put("c", 4, bytes(1, 5)));
+        assertArrayEquals(bytes(1, 5), store.get("c", 4));
+        assertEquals(32, store.usedBytes());
+        // 超过分段容量时不写入并删除旧值
+        assertFalse(store.put("c", 3, bytes(65, 6)));
+        assertNull(store.get("c", 3));
+        assertEquals(16, store.usedBytes());
+        assertTrue(store.put("c", 6, bytes(0, 0)));
+        assertArrayEquals(new byte[0], store.get("c", 6));
+    }
+
+    @Test
+    public void testSegments()
+    {
+        OffHeapStore store = new OffHeapStore(4 * 8 * 16, 4, 16);
+        for (int i = 0; i < 1000; i++)
+        {
+            assertTrue(store.put("c", "key" + i, bytes(16, i)));
+        }
+        // 每段独立淘汰，总量不超过容量
+        assertEquals(32, store.size());
+        assertEquals(4 * 8 * 16, store.usedBytes());
+        // 最近写入的8个在各自分段中都是最新的
+        for (int i = 992; i < 1000; i++)
+        {
+            assertArrayEquals(bytes(16, i), store.get("c", "key" + i));
+        }
+    }
+
+    @Test
+    public void testClear()
+    {
+        OffHeapStore store = new OffHeapStore(1024, 4, 16);
+        for (int i = 0; i < 10; i++)
+        {
+            store.put("a", i, bytes(20, i));
+            store.put("b", i, bytes(20, i));
+        }
+        assertEquals(20 * 32, store.usedBytes());
+        store.remove("a", 0);
+        assertNull(store.get("a", 0));
+        assertNotNull(store.get("b", 0));
+        store.clear("a");
+        assertEquals(10, store.size());
+        assertEquals(10 * 32, store.usedBytes());
+        for (int i = 0; i < 10; i++)
+        {
+            assertNull(store.get("a", i));
+            assertArrayEquals(bytes(20, i), store.get("b", i));
+        }
+    }
+
+    private static byte[] bytes(int length, int value)
+    {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        if (length > 0)
+        {
+            bytes[length - 1] = (byte) (value + 1);
+        }
+        return bytes;
+    }
+
+}
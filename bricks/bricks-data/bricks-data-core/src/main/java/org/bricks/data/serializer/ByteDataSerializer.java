@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.data.serializer;
+
+/**
+ * 二进制序列化
+ *
+ * @author fuzy
+ *
+ * @param <D> 数据类
+ */
+public interface ByteDataSerializer<D> extends DataSerializer<D>
+{
+
+    /**
+     * 序列化
+     *
+     * @param data 数据
+     * @return 字节数组
+     */
+    byte[] serialize(D data);
+
+    /**
+     * 反序列化
+     *
+     * @param bytes 字节数组
+     * @return 数据
+     */
+    D deserialize(byte[] bytes);
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.poi.reader;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.poi.openxml4j.opc.PackageAccess.READ;
+import static org.bricks.constants.Constants.FormatConstants.DATETIME_FORMAT;
+import static org.bricks.utils.DateUtils.format;
+import static org.bricks.utils.DateUtils.toLocalDateTime;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.TempFile;
+import org.bricks.exception.BaseException;
+
+/**
+ * excel流式行读取，按行拉取数据，内存占用与sheet大小无关
+ *
+ * @author fuzy
+ *
+ */
+public abstract class AbstractRowReader implements Iterator<Map<Integer, String>>, Closeable
+{
+
+    /**
+     * 当前物理行的单元格 Map&lt;列号, 值&gt;
+     */
+    protected final Map<Integer, String> cells = newHashMap();
+
+    /**
+     * 当前物理行号
+     */
+    protected int rowNum = -1;
+
+    /**
+     * 起始行
+     */
+    private final int startRow;
+
+    /**
+     * 列数，取标题行(第0行)的列数
+     */
+    private int columns = -1;
+
+    /**
+     * 预读的下一行
+     */
+    private Map<Integer, String> nextRow;
+
+    /**
+     * 是否已读完
+     */
+    private boolean finished;
+
+    /**
+     * 构造方法
+     *
+     * @param startRow 起始行
+     */
+    protected AbstractRowReader(int startRow)
+    {
+        this.startRow = startRow;
+    }
+
+    /**
+     * 根据文件头打开xls或xlsx读取器，xlsx先落盘为临时文件再按zip条目随机读取，避免整包解压到内存
+     *
+     * @param stream 输入流
+     * @param sheetIndex sheet号
+     * @param startRow 起始行
+     * @return 读取器
+     * @throws IOException IO异常
+     */
+    public static AbstractRowReader open(InputStream stream, int sheetIndex, int startRow) throws IOException
+    {
+        InputStream is = FileMagic.prepareToCheckMagic(stream);
+        FileMagic magic = FileMagic.valueOf(is);
+        try
+        {
+            switch (magic)
+            {
+                case OLE2:
+                    return new XlsRowReader(new POIFSFileSystem(is), sheetIndex, startRow);
+                case OOXML:
+                    return openTemp(is, sheetIndex, startRow);
+                default:
+                    throw new IOException("unsupported file format " + magic);
+            }
+        }
+        catch (InvalidFormatException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 根据文件头打开xls或xlsx读取器，直接按文件随机读取，不复制也不整包读入内存，关闭时不删除文件
+     *
+     * @param file 文件
+     * @param sheetIndex sheet号
+     * @param startRow 起始行
+     * @return 读取器
+     * @throws IOException IO异常
+     */
+    public static AbstractRowReader open(File file, int sheetIndex, int startRow) throws IOException
+    {
+        FileMagic magic = FileMagic.valueOf(file);
+        switch (magic)
+        {
+            case OLE2:
+                POIFSFileSystem fs = new POIFSFileSystem(file, true);
+                try
+                {
+                    return new XlsRowReader(fs, sheetIndex, startRow);
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    fs.close();
+                    throw e;
+                }
+            case OOXML:
+                OPCPackage pkg = openPackage(file);
+                try
+                {
+                    return new XlsxRowReader(pkg, sheetIndex, startRow);
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    pkg.revert();
+                    throw e;
+                }
+            default:
+                throw new IOException("unsupported file format " + magic);
+        }
+    }
+
+    /**
+     * 只读打开xlsx文件
+     *
+     * @param file 文件
+     * @return 包
+     * @throws IOException IO异常
+     */
+    private static OPCPackage openPackage(File file) throws IOException
+    {
+        try
+        {
+            return OPCPackage.open(file, READ);
+        }
+        catch (InvalidFormatException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * xlsx流落盘后打开，关闭时删除临时文件
+     *
+     * @param stream 输入流
+     * @param sheetIndex sheet号
+     * @param startRow 起始行
+     * @return 读取器
+     * @throws IOException IO异常
+     * @throws InvalidFormatException 格式异常
+     */
+    private static AbstractRowReader openTemp(InputStream stream, int sheetIndex, int startRow)
+            throws IOException, InvalidFormatException
+    {
+        File temp = TempFile.createTempFile("bricks-", ".xlsx");
+        try
+        {
+            copy(stream, temp.toPath(), REPLACE_EXISTING);
+            return new XlsxRowReader(OPCPackage.open(temp, READ), sheetIndex, startRow).setTemp(temp);
+        }
+        catch (IOException | InvalidFormatException | RuntimeException e)
+        {
+            deleteIfExists(temp.toPath());
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (nextRow == null && !finished)
+        {
+            cells.clear();
+            boolean fetched;
+            try
+            {
+                fetched = fetch();
+            }
+            catch (IOException e)
+            {
+                throw new BaseException(e);
+            }
+            if (!fetched)
+            {
+                finished = true;
+                break;
+            }
+            nextRow = buildRow();
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public Map<Integer, String> next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        Map<Integer, String> row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    /**
+     * 读取下一个物理行到cells和rowNum
+     *
+     * @return 是否读到
+     * @throws IOException IO异常
+     */
+    protected abstract boolean fetch() throws IOException;
+
+    /**
+     * 格式化日期单元格
+     *
+     * @param value excel日期数值
+     * @param date1904 1904日期体系
+     * @return 日期字符串
+     */
+    protected String formatDate(double value, boolean date1904)
+    {
+        return format(toLocalDateTime(DateUtil.getJavaDate(value, date1904)), DATETIME_FORMAT);
+    }
+
+    /**
+     * 按标题列数组装一行，跳过起始行之前的行和空行
+     *
+     * @return 行数据
+     */
+    private Map<Integer, String> buildRow()
+    {
+        if (rowNum == 0)
+        {
+            columns = width();
+        }
+        if (rowNum < startRow)
+        {
+            return null;
+        }
+        int n = columns > -1 ? columns : width();
+        Map<Integer, String> dataMap = newLinkedHashMap();
+        boolean empty = true;
+        for (int i = 0; i < n; i++)
+        {
+            String value = cells.getOrDefault(i, "");
+            empty = empty && isBlank(value);
+            dataMap.put(i, value);
+        }
+        return empty ? null : dataMap;
+    }
+
+    /**
+     * @return 当前物理行的列数
+     */
+    private int width()
+    {
+        return cells.keySet()
+                .stream()
+                .mapToInt(Integer::intValue)
+                .max()
+                .orElse(-1) + 1;
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.poi.reader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * csv/tsv流式行读取，按RFC 4180解析引号、转义引号和字段内换行。
+ * 字段直接从字符缓冲区截取，只有跨缓冲区或含引号的字段才拼接
+ *
+ * @author fuzy
+ *
+ */
+public class CsvRowReader extends AbstractRowReader
+{
+
+    /**
+     * 缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 字节序标记
+     */
+    private static final char BOM = '\uFEFF';
+
+    /**
+     * 引号
+     */
+    private static final char QUOTE = '"';
+
+    /**
+     * 字符流
+     */
+    private final Reader reader;
+
+    /**
+     * 分隔符
+     */
+    private final char delimiter;
+
+    /**
+     * 字符缓冲区
+     */
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    /**
+     * 跨缓冲区或含引号字段的拼接
+     */
+    private final StringBuilder field = new StringBuilder();
+
+    /**
+     * 读取位置
+     */
+    private int position;
+
+    /**
+     * 有效字符数
+     */
+    private int limit;
+
+    /**
+     * 是否已读到流末尾
+     */
+    private boolean eof;
+
+    /**
+     * 构造方法
+     *
+     * @param reader 字符流
+     * @param delimiter 分隔符
+     * @param startRow 起始行
+     */
+    public CsvRowReader(Reader reader, char delimiter, int startRow)
+    {
+        super(startRow);
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    protected boolean fetch() throws IOException
+    {
+        if (rowNum < 0 && fill() && buffer[position] == BOM)
+        {
+            position++;
+        }
+        if (!fill())
+        {
+            return false;
+        }
+        rowNum++;
+        int column = 0;
+        while (readField(column))
+        {
+            column++;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        reader.close();
+    }
+
+    /**
+     * 读取一个字段到cells
+     *
+     * @param column 列号
+     * @return 后面是否还有字段
+     * @throws IOException IO异常
+     */
+    private boolean readField(int column) throws IOException
+    {
+        field.setLength(0);
+        if (fill() && buffer[position] == QUOTE)
+        {
+            position++;
+            readQuoted();
+        }
+        int start = position;
+        while (true)
+        {
+            if (position == limit)
+            {
+                field.append(buffer, start, position - start);
+                if (!fill())
+                {
+                    cells.put(column, field.toString()
+                            .trim());
+                    return false;
+                }
+                start = position;
+            }
+            char c = buffer[position];
+            if (c == delimiter || c == '\r' || c == '\n')
+            {
+                String value;
+                if (field.length() == 0)
+                {
+                    value = new String(buffer, start, position - start);
+                }
+                else
+                {
+                    value = field.append(buffer, start, position - start)
+                            .toString();
+                }
+                cells.put(column, value.trim());
+                position++;
+                if (c == delimiter)
+                {
+                    return true;
+                }
+                if (c == '\r' && fill() && buffer[position] == '\n')
+                {
+                    position++;
+                }
+                return false;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * 读取引号内的内容到field，停在闭合引号之后，两个连续引号转义为一个
+     *
+     * @throws IOException IO异常
+     */
+    private void readQuoted() throws IOException
+    {
+        int start = position;
+        while (true)
+        {
+            if (position == limit)
+            {
+                field.append(buffer, start, position - start);
+                if (!fill())
+                {
+                    return;
+                }
+                start = position;
+            }
+            if (buffer[position] == QUOTE)
+            {
+                field.append(buffer, start, position - start);
+                position++;
+                if (!fill() || buffer[position] != QUOTE)
+                {
+                    return;
+                }
+                start = position;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * 缓冲区读完时重新填充
+     *
+     * @return 是否还有字符
+     * @throws IOException IO异常
+     */
+    private boolean fill() throws IOException
+    {
+        if (position < limit)
+        {
+            return true;
+        }
+        if (eof)
+        {
+            return false;
+        }
+        int n = reader.read(buffer, 0, BUFFER_SIZE);
+        while (n == 0)
+        {
+            n = reader.read(buffer, 0, BUFFER_SIZE);
+        }
+        position = 0;
+        limit = Math.max(n, 0);
+        eof = n < 0;
+        return n > 0;
+    }
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.poi.reader;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static org.apache.poi.hssf.record.BOFRecord.TYPE_WORKBOOK;
+import static org.apache.poi.hssf.usermodel.HSSFWorkbook.getWorkbookDirEntryName;
+import static org.apache.poi.ss.usermodel.BuiltinFormats.getBuiltinFormat;
+import static org.apache.poi.ss.usermodel.DateUtil.isADateFormat;
+import static org.apache.poi.ss.util.NumberToTextConverter.toText;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FormatRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+/**
+ * xls流式行读取，基于HSSF记录流拉模式解析
+ *
+ * @author fuzy
+ *
+ */
+public class XlsRowReader extends AbstractRowReader
+{
+
+    /**
+     * 文件系统
+     */
+    private final POIFSFileSystem fs;
+
+    /**
+     * 工作簿流
+     */
+    private final InputStream stream;
+
+    /**
+     * 记录流
+     */
+    private final RecordFactoryInputStream records;
+
+    /**
+     * 目标sheet号
+     */
+    private final int sheetIndex;
+
+    /**
+     * 扩展格式列表
+     */
+    private final List<ExtendedFormatRecord> xfList = newArrayList();
+
+    /**
+     * 自定义格式 Map&lt;格式号, 格式&gt;
+     */
+    private final Map<Integer, String> formatMap = newHashMap();
+
+    /**
+     * 共享字符串
+     */
+    private SSTRecord sst;
+
+    /**
+     * 1904日期体系
+     */
+    private boolean date1904;
+
+    /**
+     * 子流嵌套深度
+     */
+    private int depth;
+
+    /**
+     * 已读sheet数
+     */
+    private int sheets;
+
+    /**
+     * 是否在目标sheet中
+     */
+    private boolean inSheet;
+
+    /**
+     * 目标sheet已读完
+     */
+    private boolean done;
+
+    /**
+     * 等待字符串结果的公式列
+     */
+    private int formulaColumn = -1;
+
+    /**
+     * 预读的下一行记录
+     */
+    private Record pending;
+
+    /**
+     * 构造方法
+     *
+     * @param fs 文件系统
+     * @param sheetIndex sheet号
+     * @param startRow 起始行
+     * @throws IOException IO异常
+     */
+    public XlsRowReader(POIFSFileSystem fs, int sheetIndex, int startRow) throws IOException
+    {
+        super(startRow);
+        this.fs = fs;
+        this.sheetIndex = sheetIndex;
+        stream = fs.createDocumentInputStream(getWorkbookDirEntryName(fs.getRoot()));
+        records = new RecordFactoryInputStream(stream, false);
+    }
+
+    @Override
+    protected boolean fetch()
+    {
+        boolean started = false;
+        while (!done)
+        {
+            Record record = pending != null ? pending : records.nextRecord();
+            pending = null;
+            if (record == null)
+            {
+                done = true;
+            }
+            else if (record instanceof CellValueRecordInterface)
+            {
+                if (inSheet)
+                {
+                    int row = ((CellValueRecordInterface) record).getRow();
+                    if (started && row != rowNum)
+                    {
+                        pending = record;
+                        return true;
+                    }
+                    rowNum = row;
+                    started = true;
+                    readCell(record);
+                }
+            }
+            else if (record instanceof StringRecord)
+            {
+                if (inSheet && formulaColumn > -1)
+                {
+                    cells.put(formulaColumn, ((StringRecord) record).getString()
+                            .trim());
+                }
+                formulaColumn = -1;
+            }
+            else
+            {
+                readRecord(record);
+            }
+        }
+        return started;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            stream.close();
+        }
+        finally
+        {
+            fs.close();
+        }
+    }
+
+    /**
+     * 读取单元格记录
+     *
+     * @param record 单元格记录
+     */
+    private void readCell(Record record)
+    {
+        int column = ((CellValueRecordInterface) record).getColumn();
+        int xfIndex = ((CellValueRecordInterface) record).getXFIndex();
+        formulaColumn = -1;
+        if (record instanceof NumberRecord)
+        {
+            double value = ((NumberRecord) record).getValue();
+            cells.put(column, isDateFormat(xfIndex) ? formatDate(value, date1904) : toText(value));
+        }
+        else if (record instanceof LabelSSTRecord)
+        {
+            cells.put(column, sst.getString(((LabelSSTRecord) record).getSSTIndex())
+                    .getString()
+                    .trim());
+        }
+        else if (record instanceof LabelRecord)
+        {
+            cells.put(column, ((LabelRecord) record).getValue()
+                    .trim());
+        }
+        else if (record instanceof FormulaRecord)
+        {
+            FormulaRecord formula = (FormulaRecord) record;
+            if (formula.hasCachedResultString())
+            {
+                formulaColumn = column;
+            }
+            else
+            {
+                double value = formula.getValue();
+                cells.put(column, isDateFormat(xfIndex) ? formatDate(value, date1904) : String.valueOf(value));
+            }
+        }
+    }
+
+    /**
+     * 读取非单元格记录，维护全局信息和sheet位置
+     *
+     * @param record 记录
+     */
+    private void readRecord(Record record)
+    {
+        if (record instanceof BOFRecord)
+        {
+            if (depth == 0 && ((BOFRecord) record).getType() != TYPE_WORKBOOK)
+            {
+                inSheet = sheets++ == sheetIndex;
+            }
+            depth++;
+        }
+        else if (record instanceof EOFRecord)
+        {
+            depth--;
+            if (depth == 0 && inSheet)
+            {
+                done = true;
+            }
+        }
+        else if (record instanceof SSTRecord)
+        {
+            sst = (SSTRecord) record;
+        }
+        else if (record instanceof ExtendedFormatRecord)
+        {
+            xfList.add((ExtendedFormatRecord) record);
+        }
+        else if (record instanceof FormatRecord)
+        {
+            FormatRecord format = (FormatRecord) record;
+            formatMap.put(format.getIndexCode(), format.getFormatString());
+        }
+        else if (record instanceof DateWindow1904Record)
+        {
+            date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+        }
+    }
+
+    /**
+     * 扩展格式是否日期
+     *
+     * @param xfIndex 扩展格式号
+     * @return 是否日期
+     */
+    private boolean isDateFormat(int xfIndex)
+    {
+        if (xfIndex < 0 || xfIndex >= xfList.size())
+        {
+            return false;
+        }
+        int formatIndex = xfList.get(xfIndex)
+                .getFormatIndex();
+        String format = formatMap.get(formatIndex);
+        return isADateFormat(formatIndex, format != null ? format : getBuiltinFormat(formatIndex));
+    }
+
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.poi.reader;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static java.nio.file.Files.deleteIfExists;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.apache.poi.ss.usermodel.DateUtil.isADateFormat;
+import static org.apache.poi.ss.util.NumberToTextConverter.toText;
+import static org.apache.poi.util.XMLHelper.newXMLInputFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.bricks.exception.BaseException;
+import org.xml.sax.SAXException;
+
+/**
+ * xlsx流式行读取，共享字符串表 + sheet xml拉模式解析
+ *
+ * @author fuzy
+ *
+ */
+public class XlsxRowReader extends AbstractRowReader
+{
+
+    /**
+     * xml解析工厂
+     */
+    private static final XMLInputFactory FACTORY = newXMLInputFactory();
+
+    /**
+     * 压缩包
+     */
+    private final OPCPackage pkg;
+
+    /**
+     * 共享字符串
+     */
+    private final ReadOnlySharedStringsTable sharedStrings;
+
+    /**
+     * 样式
+     */
+    private final StylesTable styles;
+
+    /**
+     * 样式是否日期格式缓存
+     */
+    private final Map<Integer, Boolean> dateStyleMap = newHashMap();
+
+    /**
+     * sheet流
+     */
+    private final InputStream sheetStream;
+
+    /**
+     * sheet解析器
+     */
+    private final XMLStreamReader reader;
+
+    /**
+     * 1904日期体系
+     */
+    private final boolean date1904;
+
+    /**
+     * 临时文件，关闭时删除
+     */
+    private File temp;
+
+    /**
+     * 构造方法
+     *
+     * @param pkg 压缩包
+     * @param sheetIndex sheet号
+     * @param startRow 起始行
+     * @throws IOException IO异常
+     */
+    public XlsxRowReader(OPCPackage pkg, int sheetIndex, int startRow) throws IOException
+    {
+        super(startRow);
+        this.pkg = pkg;
+        try
+        {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            styles = xssfReader.getStylesTable();
+            date1904 = isDate1904(xssfReader);
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            InputStream stream = null;
+            for (int i = 0; i <= sheetIndex && sheets.hasNext(); i++)
+            {
+                if (stream != null)
+                {
+                    stream.close();
+                }
+                stream = sheets.next();
+            }
+            if (stream == null)
+            {
+                throw new BaseException("sheet " + sheetIndex + " not found");
+            }
+            sheetStream = stream;
+            reader = FACTORY.createXMLStreamReader(sheetStream);
+        }
+        catch (OpenXML4JException | SAXException | XMLStreamException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    protected boolean fetch() throws IOException
+    {
+        try
+        {
+            while (reader.hasNext())
+            {
+                int event = reader.next();
+                if (event == START_ELEMENT)
+                {
+                    String name = reader.getLocalName();
+                    if ("row".equals(name))
+                    {
+                        String r = reader.getAttributeValue(null, "r");
+                        rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    }
+                    else if ("c".equals(name))
+                    {
+                        readCell();
+                    }
+                }
+                else if (event == END_ELEMENT && "row".equals(reader.getLocalName()))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        catch (XMLStreamException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            reader.close();
+        }
+        catch (XMLStreamException e)
+        {
+            throw new IOException(e);
+        }
+        finally
+        {
+            sheetStream.close();
+            pkg.revert();
+            if (temp != null)
+            {
+                deleteIfExists(temp.toPath());
+            }
+        }
+    }
+
+    /**
+     * 设置临时文件
+     *
+     * @param temp 临时文件
+     * @return 读取器
+     */
+    XlsxRowReader setTemp(File temp)
+    {
+        this.temp = temp;
+        return this;
+    }
+
+    /**
+     * 读取单元格，解析器停在&lt;c&gt;开始标签
+     *
+     * @throws XMLStreamException 解析异常
+     */
+    private void readCell() throws XMLStreamException
+    {
+        int column = column(reader.getAttributeValue(null, "r"));
+        String type = reader.getAttributeValue(null, "t");
+        String style = reader.getAttributeValue(null, "s");
+        StringBuilder value = new StringBuilder();
+        boolean formula = false;
+        boolean text = false;
+        while (reader.hasNext())
+        {
+            int event = reader.next();
+            if (event == START_ELEMENT)
+            {
+                String name = reader.getLocalName();
+                formula = formula || "f".equals(name);
+                text = "v".equals(name) || "t".equals(name);
+            }
+            else if ((event == CHARACTERS || event == CDATA) && text)
+            {
+                value.append(reader.getText());
+            }
+            else if (event == END_ELEMENT)
+            {
+                if ("c".equals(reader.getLocalName()))
+                {
+                    break;
+                }
+                text = false;
+            }
+        }
+        cells.put(column < 0 ? cells.size() : column, cellValue(type, style, value.toString(), formula));
+    }
+
+    /**
+     * 单元格值，与usermodel读取结果保持一致，数值按excel显示的15位有效数字转文本
+     *
+     * @param type 类型
+     * @param style 样式号
+     * @param value 原始值
+     * @param formula 是否公式
+     * @return 字符串值
+     */
+    private String cellValue(String type, String style, String value, boolean formula)
+    {
+        if (type == null || "n".equals(type))
+        {
+            if (value.isEmpty())
+            {
+                return "";
+            }
+            double number = Double.parseDouble(value);
+            if (isDateStyle(style))
+            {
+                return formatDate(number, date1904);
+            }
+            return formula ? String.valueOf(number) : toText(number);
+        }
+        switch (type)
+        {
+            case "s":
+                return value.isEmpty() ? ""
+                        : sharedStrings.getItemAt(Integer.parseInt(value.trim()))
+                                .getString()
+                                .trim();
+            case "inlineStr":
+            case "str":
+                return value.trim();
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * 样式是否日期格式
+     *
+     * @param style 样式号
+     * @return 是否日期
+     */
+    private boolean isDateStyle(String style)
+    {
+        if (style == null || styles == null)
+        {
+            return false;
+        }
+        return dateStyleMap.computeIfAbsent(Integer.parseInt(style), index ->
+        {
+            XSSFCellStyle cellStyle = styles.getStyleAt(index);
+            return cellStyle != null && isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+        });
+    }
+
+    /**
+     * 单元格引用中的列号，如B3返回1
+     *
+     * @param ref 单元格引用
+     * @return 列号
+     */
+    private static int column(String ref)
+    {
+        if (ref == null)
+        {
+            return -1;
+        }
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++)
+        {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z')
+            {
+                break;
+            }
+            column = column * 26 + c - 'A' + 1;
+        }
+        return column - 1;
+    }
+
+    /**
+     * 工作簿是否1904日期体系
+     *
+     * @param xssfReader 读取器
+     * @return 是否1904
+     * @throws IOException IO异常
+     * @throws OpenXML4JException 格式异常
+     * @throws XMLStreamException 解析异常
+     */
+    private static boolean isDate1904(XSSFReader xssfReader)
+            throws IOException, OpenXML4JException, XMLStreamException
+    {
+        try (InputStream stream = xssfReader.getWorkbookData())
+        {
+            XMLStreamReader workbookReader = FACTORY.createXMLStreamReader(stream);
+            try
+            {
+                while (workbookReader.hasNext())
+                {
+                    if (workbookReader.next() == START_ELEMENT)
+                    {
+                        String name = workbookReader.getLocalName();
+                        if ("workbookPr".equals(name))
+                        {
+                            String value = workbookReader.getAttributeValue(null, "date1904");
+                            return "1".equals(value) || "true".equalsIgnoreCase(value);
+                        }
+                        if ("sheets".equals(name))
+                        {
+                            return false;
+                        }
+                    }
+                }
+                return false;
+            }
+            finally
+            {
+                workbookReader.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.poi.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.bricks.module.bean.BatchData;
+import org.bricks.module.enums.DataType;
+import org.bricks.module.service.BatchService;
+
+/**
+ * csv/tsv批量接口，行数据格式与excel批量接口一致
+ *
+ * @author fuzy
+ *
+ */
+public interface CsvBatchService extends BatchService
+{
+
+    /**
+     * 按csv导入数据
+     *
+     * @param stream 输入流
+     * @param delimiter 分隔符
+     * @param startRow 开始行号
+     * @return 批量数据
+     */
+    BatchData getData(InputStream stream, char delimiter, int startRow);
+
+    /**
+     * 按csv流式读取数据，逐行回调
+     *
+     * @param stream 输入流
+     * @param delimiter 分隔符
+     * @param startRow 开始行号
+     * @param consumer 行回调
+     * @return 读取行数
+     */
+    int read(InputStream stream, char delimiter, int startRow, Consumer<Map<Integer, String>> consumer);
+
+    /**
+     * 按csv流式读取数据，使用后需关闭流
+     *
+     * @param stream 输入流
+     * @param delimiter 分隔符
+     * @param startRow 开始行号
+     * @return 行数据流
+     */
+    Stream<Map<Integer, String>> stream(InputStream stream, char delimiter, int startRow);
+
+    /**
+     * 将数据写入csv
+     *
+     * @param dataList 行数据列表
+     * @param titleList 标题
+     * @param dataTypeList 数据类型
+     * @param delimiter 分隔符
+     * @param os 输出流
+     */
+    void write(List<Map<Integer, String>> dataList, List<String> titleList, List<DataType> dataTypeList,
+            char delimiter, OutputStream os);
+
+    /**
+     * 边生成边写入csv
+     *
+     * @param iterator 行数据迭代器
+     * @param titleList 标题
+     * @param dataTypeList 数据类型
+     * @param delimiter 分隔符
+     * @param os 输出流
+     */
+    void write(Iterator<Map<Integer, String>> iterator, List<String> titleList, List<DataType> dataTypeList,
+            char delimiter, OutputStream os);
+
+    /**
+     * 边生成边写入csv
+     *
+     * @param stream 行数据流
+     * @param titleList 标题
+     * @param dataTypeList 数据类型
+     * @param delimiter 分隔符
+     * @param os 输出流
+     */
+    void write(Stream<Map<Integer, String>> stream, List<String> titleList, List<DataType> dataTypeList,
+            char delimiter, OutputStream os);
+
+    /**
+     * 打开csv/tsv逐行写入，关闭时刷新并关闭输出流
+     *
+     * @param titleList 标题
+     * @param dataTypeList 数据类型
+     * @param delimiter 分隔符
+     * @param os 输出流
+     * @return 行写入
+     * @throws IOException IO异常
+     */
+    RowWriter openWriter(List<String> titleList, List<DataType> dataTypeList, char delimiter, OutputStream os)
+            throws IOException;
+
+}
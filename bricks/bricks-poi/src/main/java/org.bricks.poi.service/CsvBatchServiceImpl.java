@@ -0,0 +1,338 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.poi.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.Paths.get;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.bricks.module.constants.Constants.PoiConstants.CSV_DELIMITER;
+import static org.bricks.module.constants.Constants.PoiConstants.ERR_COL;
+import static org.bricks.module.constants.Constants.PoiConstants.TSV_DELIMITER;
+import static org.bricks.utils.FunctionUtils.run;
+import static org.bricks.utils.StreamUtils.toStream;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.bricks.module.bean.BatchData;
+import org.bricks.module.enums.DataType;
+import org.bricks.poi.reader.CsvRowReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * csv/tsv批量接口，不经过POI，按字符缓冲区直接解析和输出
+ *
+ * @author fuzy
+ *
+ */
+@Slf4j
+@Service
+public class CsvBatchServiceImpl implements CsvBatchService
+{
+
+    /**
+     * 输出缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 换行
+     */
+    private static final String CRLF = "\r\n";
+
+    /**
+     * 字符集
+     */
+    @Value("${bricks.poi.csvCharset:UTF-8}")
+    private Charset charset;
+
+    /**
+     * UTF-8输出时写入字节序标记，excel打开时才能识别中文
+     */
+    @Value("${bricks.poi.csvBom:true}")
+    private boolean bom;
+
+    @Override
+    public BatchData getData(InputStream stream)
+    {
+        return getData(stream, CSV_DELIMITER, 1);
+    }
+
+    @Override
+    public BatchData getData(InputStream stream, char delimiter, int startRow)
+    {
+        BatchData data = new BatchData();
+        List<Map<Integer, String>> dataMapList = data.getDataMap();
+        data.setTotal(read(stream, delimiter, startRow, dataMapList::add));
+        return data;
+    }
+
+    @Override
+    public int read(InputStream stream, char delimiter, int startRow, Consumer<Map<Integer, String>> consumer)
+    {
+        int total = 0;
+        if (stream != null)
+        {
+            try (InputStream is = stream; CsvRowReader reader = open(is, delimiter, startRow))
+            {
+                while (reader.hasNext())
+                {
+                    consumer.accept(reader.next());
+                    total++;
+                }
+            }
+            catch (Throwable e)
+            {
+                log.error(e.getMessage(), e);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public Stream<Map<Integer, String>> stream(InputStream stream, char delimiter, int startRow)
+    {
+        if (stream != null)
+        {
+            CsvRowReader reader = open(stream, delimiter, startRow);
+            return toStream(reader, false).onClose(() -> run(reader::close, null, null, log));
+        }
+        return Stream.empty();
+    }
+
+    @Override
+    public void write(List<Map<Integer, String>> dataList, List<String> titleList, File file)
+    {
+        char delimiter = file.getName()
+                .toLowerCase(Locale.US)
+                .endsWith(".tsv") ? TSV_DELIMITER : CSV_DELIMITER;
+        try (OutputStream os = newOutputStream(get(file.getAbsolutePath())))
+        {
+            write(dataList, titleList, null, delimiter, os);
+        }
+        catch (IOException e)
+        {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void write(List<Map<Integer, String>> dataList, List<String> titleList, OutputStream os)
+    {
+        write(dataList, titleList, null, CSV_DELIMITER, os);
+    }
+
+    @Override
+    public void write(List<Map<Integer, String>> dataList, List<String> titleList, List<DataType> dataTypeList,
+            char delimiter, OutputStream os)
+    {
+        write(dataList.iterator(), titleList, dataTypeList, delimiter, os);
+    }
+
+    @Override
+    public void write(Iterator<Map<Integer, String>> iterator, List<String> titleList, List<DataType> dataTypeList,
+            char delimiter, OutputStream stream)
+    {
+        try (RowWriter writer = openWriter(titleList, dataTypeList, delimiter, stream))
+        {
+            while (iterator.hasNext())
+            {
+                writer.write(iterator.next());
+            }
+        }
+        catch (IOException e)
+        {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void write(Stream<Map<Integer, String>> stream, List<String> titleList, List<DataType> dataTypeList,
+            char delimiter, OutputStream os)
+    {
+        try (Stream<Map<Integer, String>> s = stream)
+        {
+            write(s.iterator(), titleList, dataTypeList, delimiter, os);
+        }
+    }
+
+    @Override
+    public RowWriter openWriter(List<String> titleList, List<DataType> dataTypeList, char delimiter,
+            OutputStream os) throws IOException
+    {
+        return new CsvWriter(titleList, delimiter, os);
+    }
+
+    /**
+     * 打开读取器
+     *
+     * @param stream 输入流
+     * @param delimiter 分隔符
+     * @param startRow 起始行
+     * @return 读取器
+     */
+    private CsvRowReader open(InputStream stream, char delimiter, int startRow)
+    {
+        return new CsvRowReader(new InputStreamReader(stream, charset), delimiter, startRow);
+    }
+
+    /**
+     * 写入单元格，含分隔符、引号或换行时加引号，引号转义为两个引号
+     *
+     * @param writer 输出
+     * @param column 列号
+     * @param value 值
+     * @param delimiter 分隔符
+     * @throws IOException IO异常
+     */
+    private static void writeCell(Writer writer, int column, String value, char delimiter) throws IOException
+    {
+        if (column > 0)
+        {
+            writer.write(delimiter);
+        }
+        if (value == null || value.isEmpty())
+        {
+            return;
+        }
+        if (!needQuote(value, delimiter))
+        {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        int start = 0;
+        for (int i = 0, n = value.length(); i < n; i++)
+        {
+            if (value.charAt(i) == '"')
+            {
+                writer.write(value, start, i + 1 - start);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    /**
+     * 是否需要加引号
+     *
+     * @param value 值
+     * @param delimiter 分隔符
+     * @return 是否需要
+     */
+    private static boolean needQuote(String value, char delimiter)
+    {
+        for (int i = 0, n = value.length(); i < n; i++)
+        {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"' || c == '\r' || c == '\n')
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * csv/tsv逐行写入，CRLF换行，错误信息追加在最后一列
+     */
+    private class CsvWriter implements RowWriter
+    {
+
+        /**
+         * 输出
+         */
+        private final Writer writer;
+
+        /**
+         * 分隔符
+         */
+        private final char delimiter;
+
+        /**
+         * 列数
+         */
+        private final int columns;
+
+        /**
+         * 构造方法，写入字节序标记和标题行
+         *
+         * @param titleList 标题
+         * @param delimiter 分隔符
+         * @param os 输出流
+         * @throws IOException IO异常
+         */
+        CsvWriter(List<String> titleList, char delimiter, OutputStream os) throws IOException
+        {
+            writer = new BufferedWriter(new OutputStreamWriter(os, charset), BUFFER_SIZE);
+            this.delimiter = delimiter;
+            columns = isNotEmpty(titleList) ? titleList.size() : 0;
+            if (bom && UTF_8.equals(charset))
+            {
+                writer.write('\uFEFF');
+            }
+            for (int i = 0; i < columns; i++)
+            {
+                writeCell(writer, i, titleList.get(i), delimiter);
+            }
+            writer.write(CRLF);
+        }
+
+        @Override
+        public void write(Map<Integer, String> dataMap) throws IOException
+        {
+            for (int i = 0; i < columns; i++)
+            {
+                writeCell(writer, i, dataMap.get(i), delimiter);
+            }
+            String error = dataMap.get(ERR_COL);
+            if (isNotBlank(error))
+            {
+                writeCell(writer, columns, error, delimiter);
+            }
+            writer.write(CRLF);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            writer.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.poi.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.bricks.exception.BaseException;
+import org.bricks.module.service.ErrorReport;
+
+/**
+ * 写入文件的错误报告，错误行加入时直接写入，只保留行数
+ *
+ * @author fuzy
+ *
+ */
+public class ErrorReportWriter implements ErrorReport
+{
+
+    /**
+     * 报告文件
+     */
+    private final File file;
+
+    /**
+     * 行写入
+     */
+    private final RowWriter writer;
+
+    /**
+     * 已写入行数
+     */
+    private int count;
+
+    /**
+     * 是否已关闭
+     */
+    private boolean closed;
+
+    /**
+     * 构造方法
+     *
+     * @param file 报告文件
+     * @param writer 行写入
+     */
+    public ErrorReportWriter(File file, RowWriter writer)
+    {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    @Override
+    public void accept(Map<Integer, String> dataMap)
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("error report closed");
+        }
+        try
+        {
+            writer.write(dataMap);
+        }
+        catch (IOException e)
+        {
+            throw new BaseException(e);
+        }
+        count++;
+    }
+
+    @Override
+    public int size()
+    {
+        return count;
+    }
+
+    @Override
+    public File getFile()
+    {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!closed)
+        {
+            closed = true;
+            writer.close();
+        }
+    }
+
+}
@@ -19,8 +19,12 @@ package org.bricks.poi.service;
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.bricks.module.bean.BatchData;
 import org.bricks.module.enums.DataType;
@@ -45,6 +49,58 @@ public interface ExcelBatchService extends BatchService
      */
     BatchData getData(InputStream stream, int sheetIndex, int startRow);
 
+    /**
+     * 按excel文件导入数据，只读随机访问，不把文件整包读入内存
+     *
+     * @param path 文件路径
+     * @param sheetIndex sheet序号
+     * @param startRow 开始行号
+     * @return 批量数据
+     */
+    BatchData getData(Path path, int sheetIndex, int startRow);
+
+    /**
+     * 按excel流式读取数据，逐行回调，不加载整个工作簿
+     *
+     * @param stream 输入流
+     * @param sheetIndex sheet序号
+     * @param startRow 开始行号
+     * @param consumer 行回调
+     * @return 读取行数
+     */
+    int read(InputStream stream, int sheetIndex, int startRow, Consumer<Map<Integer, String>> consumer);
+
+    /**
+     * 按excel文件流式读取数据，逐行回调，xlsx直接读取zip条目，不复制临时文件
+     *
+     * @param path 文件路径
+     * @param sheetIndex sheet序号
+     * @param startRow 开始行号
+     * @param consumer 行回调
+     * @return 读取行数
+     */
+    int read(Path path, int sheetIndex, int startRow, Consumer<Map<Integer, String>> consumer);
+
+    /**
+     * 按excel流式读取数据，使用后需关闭流
+     *
+     * @param stream 输入流
+     * @param sheetIndex sheet序号
+     * @param startRow 开始行号
+     * @return 行数据流
+     */
+    Stream<Map<Integer, String>> stream(InputStream stream, int sheetIndex, int startRow);
+
+    /**
+     * 按excel文件流式读取数据，使用后需关闭流，关闭时不删除文件
+     *
+     * @param path 文件路径
+     * @param sheetIndex sheet序号
+     * @param startRow 开始行号
+     * @return 行数据流
+     */
+    Stream<Map<Integer, String>> stream(Path path, int sheetIndex, int startRow);
+
     /**
      * 将数据写入文件(支持多sheet)
      *
@@ -85,4 +141,36 @@ public interface ExcelBatchService extends BatchService
     void write(Map<String, List<Map<Integer, String>>> dataMap, Map<String, List<String>> titleMap,
             Map<String, List<DataType>> dataTypeMap, OutputStream os);
 
+    /**
+     * 边生成边写入excel，SXSSF流式写入，内存占用与行数无关
+     *
+     * @param iterator 行数据迭代器
+     * @param titleList 标题
+     * @param dataTypeList 数据类型
+     * @param os 输出流
+     */
+    void write(Iterator<Map<Integer, String>> iterator, List<String> titleList, List<DataType> dataTypeList,
+            OutputStream os);
+
+    /**
+     * 边生成边写入excel，SXSSF流式写入，内存占用与行数无关
+     *
+     * @param stream 行数据流
+     * @param titleList 标题
+     * @param dataTypeList 数据类型
+     * @param os 输出流
+     */
+    void write(Stream<Map<Integer, String>> stream, List<String> titleList, List<DataType> dataTypeList,
+            OutputStream os);
+
+    /**
+     * 打开xlsx逐行写入，SXSSF流式写入，关闭时输出并关闭输出流
+     *
+     * @param titleList 标题
+     * @param dataTypeList 数据类型
+     * @param os 输出流
+     * @return 行写入
+     */
+    RowWriter openWriter(List<String> titleList, List<DataType> dataTypeList, OutputStream os);
+
 }
@@ -16,33 +16,50 @@
 
 package org.bricks.poi.service;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 import static java.nio.file.Files.newOutputStream;
 import static java.nio.file.Paths.get;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.runAsync;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.collections4.MapUtils.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.apache.poi.hssf.util.HSSFColor.HSSFColorPredefined.RED;
-import static org.apache.poi.ss.usermodel.CellType.STRING;
 import static org.apache.poi.ss.usermodel.DateUtil.isCellDateFormatted;
 import static org.apache.poi.ss.usermodel.FillPatternType.SPARSE_DOTS;
 import static org.apache.poi.ss.usermodel.WorkbookFactory.create;
+import static org.apache.poi.ss.util.NumberToTextConverter.toText;
 import static org.bricks.constants.Constants.FormatConstants.DATETIME_FORMAT;
 import static org.bricks.module.constants.Constants.PoiConstants.ERR_COL;
+import static org.bricks.module.enums.DataType.DOUBLE;
+import static org.bricks.module.enums.DataType.INTEGER;
+import static org.bricks.module.enums.DataType.STRING;
 import static org.bricks.utils.DateUtils.format;
 import static org.bricks.utils.DateUtils.toLocalDateTime;
+import static org.bricks.utils.FunctionUtils.run;
+import static org.bricks.utils.StreamUtils.toStream;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.openxml4j.util.ZipSecureFile;
@@ -53,9 +70,15 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.bricks.exception.BaseException;
 import org.bricks.module.bean.BatchData;
+import org.bricks.module.bean.RowTable;
 import org.bricks.module.enums.DataType;
+import org.bricks.poi.reader.AbstractRowReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import lombok.extern.slf4j.Slf4j;
@@ -71,6 +94,58 @@ import lombok.extern.slf4j.Slf4j;
 public class ExcelBatchServiceImpl implements ExcelBatchService
 {
 
+    /**
+     * xlsx导出使用SXSSF流式写入
+     */
+    @Value("${bricks.poi.streaming:false}")
+    private boolean streaming;
+
+    /**
+     * SXSSF内存中保留的行数，超出的行写入临时文件
+     */
+    @Value("${bricks.poi.window:100}")
+    private int window;
+
+    /**
+     * 压缩SXSSF临时文件
+     */
+    @Value("${bricks.poi.compress:false}")
+    private boolean compress;
+
+    /**
+     * 多sheet并行写入，仅SXSSF且未开启共享字符串表时有效，各sheet行数据在异步线程中写入各自的临时文件，最后串行打包
+     */
+    @Value("${bricks.poi.parallelSheets:false}")
+    private boolean parallelSheets;
+
+    /**
+     * SXSSF字符串写入共享字符串表，重复文本多时文件更小，但整表字符串常驻内存；默认写为内联字符串。
+     * 共享字符串表非线程安全，开启时多sheet串行写入
+     */
+    @Value("${bricks.poi.sharedStrings:false}")
+    private boolean sharedStrings;
+
+    /**
+     * zip最小解压比例，低于此值视为zip炸弹，默认-1关闭检查
+     */
+    @Value("${bricks.poi.minInflateRatio:-1.0}")
+    private double minInflateRatio;
+
+    /**
+     * 异步
+     */
+    @Resource
+    private ThreadPoolTaskExecutor executor;
+
+    /**
+     * 初始化zip解压比例限制，全局生效
+     */
+    @PostConstruct
+    public void init()
+    {
+        ZipSecureFile.setMinInflateRatio(minInflateRatio);
+    }
+
     @Override
     public BatchData getData(InputStream stream)
     {
@@ -83,12 +158,27 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
         BatchData data = new BatchData();
         if (stream != null)
         {
-            ZipSecureFile.setMinInflateRatio(-1.0);
             try (InputStream is = stream; Workbook workbook = create(is))
             {
-                List<Map<Integer, String>> dataMapList = getDataList(workbook, sheetIndex, startRow);
-                data.setDataMap(dataMapList);
-                data.setTotal(dataMapList.size());
+                setData(data, workbook, sheetIndex, startRow);
+            }
+            catch (Throwable e)
+            {
+                log.error(e.getMessage(), e);
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public BatchData getData(Path path, int sheetIndex, int startRow)
+    {
+        BatchData data = new BatchData();
+        if (path != null)
+        {
+            try (Workbook workbook = create(path.toFile(), null, true))
+            {
+                setData(data, workbook, sheetIndex, startRow);
             }
             catch (Throwable e)
             {
@@ -98,6 +188,116 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
         return data;
     }
 
+    @Override
+    public int read(InputStream stream, int sheetIndex, int startRow, Consumer<Map<Integer, String>> consumer)
+    {
+        int total = 0;
+        if (stream != null)
+        {
+            try (InputStream is = stream; AbstractRowReader reader = AbstractRowReader.open(is, sheetIndex, startRow))
+            {
+                total = read(reader, consumer);
+            }
+            catch (Throwable e)
+            {
+                log.error(e.getMessage(), e);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public int read(Path path, int sheetIndex, int startRow, Consumer<Map<Integer, String>> consumer)
+    {
+        int total = 0;
+        if (path != null)
+        {
+            try (AbstractRowReader reader = AbstractRowReader.open(path.toFile(), sheetIndex, startRow))
+            {
+                total = read(reader, consumer);
+            }
+            catch (Throwable e)
+            {
+                log.error(e.getMessage(), e);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public Stream<Map<Integer, String>> stream(InputStream stream, int sheetIndex, int startRow)
+    {
+        if (stream != null)
+        {
+            try
+            {
+                AbstractRowReader reader = AbstractRowReader.open(stream, sheetIndex, startRow);
+                return toStream(reader, false).onClose(() -> run(() ->
+                {
+                    reader.close();
+                    stream.close();
+                }, null, null, log));
+            }
+            catch (Throwable e)
+            {
+                log.error(e.getMessage(), e);
+                run(stream::close, null, null, log);
+            }
+        }
+        return Stream.empty();
+    }
+
+    @Override
+    public Stream<Map<Integer, String>> stream(Path path, int sheetIndex, int startRow)
+    {
+        if (path != null)
+        {
+            try
+            {
+                AbstractRowReader reader = AbstractRowReader.open(path.toFile(), sheetIndex, startRow);
+                return toStream(reader, false).onClose(() -> run(reader::close, null, null, log));
+            }
+            catch (Throwable e)
+            {
+                log.error(e.getMessage(), e);
+            }
+        }
+        return Stream.empty();
+    }
+
+    /**
+     * 读取工作簿的数据
+     *
+     * @param data 批量数据
+     * @param workbook 工作簿
+     * @param sheetIndex sheet序号
+     * @param startRow 开始行号
+     */
+    private void setData(BatchData data, Workbook workbook, int sheetIndex, int startRow)
+    {
+        List<Map<Integer, String>> dataMapList = getDataList(workbook, sheetIndex, startRow);
+        data.setDataMap(dataMapList);
+        data.setTotal(dataMapList.size());
+    }
+
+    /**
+     * 逐行回调
+     *
+     * @param reader 读取器
+     * @param consumer 行回调
+     * @return 读取行数
+     */
+    private int read(AbstractRowReader reader, Consumer<Map<Integer, String>> consumer)
+    {
+        int total = 0;
+        while (reader.hasNext())
+        {
+            consumer.accept(reader.next());
+            total++;
+        }
+        return total;
+    }
+
     @Override
     public void write(List<Map<Integer, String>> dataList, List<String> titleList, File file)
     {
@@ -152,10 +352,10 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
         }
         String fileName = file.getName()
                 .toLowerCase(Locale.US);
-        try (Workbook workbook = fileName.endsWith(".xls") ? new HSSFWorkbook() : new XSSFWorkbook();
+        try (Workbook workbook = createWorkbook(fileName.endsWith(".xls"), streaming);
                 OutputStream os = newOutputStream(get(file.getAbsolutePath())))
         {
-            write(dataMap, titleMap, os, workbook);
+            write(toIteratorMap(dataMap), titleMap, dataTypeMap, os, workbook);
         }
         catch (Exception e)
         {
@@ -167,9 +367,26 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
     public void write(Map<String, List<Map<Integer, String>>> dataMap, Map<String, List<String>> titleMap,
             Map<String, List<DataType>> dataTypeMap, OutputStream stream)
     {
-        try (Workbook workbook = new XSSFWorkbook(); OutputStream os = stream)
+        try (Workbook workbook = createWorkbook(false, streaming); OutputStream os = stream)
+        {
+            write(toIteratorMap(dataMap), titleMap, dataTypeMap, os, workbook);
+        }
+        catch (Exception e)
+        {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void write(Iterator<Map<Integer, String>> iterator, List<String> titleList, List<DataType> dataTypeList,
+            OutputStream stream)
+    {
+        try (RowWriter writer = openWriter(titleList, dataTypeList, stream))
         {
-            write(dataMap, titleMap, os, workbook);
+            while (iterator.hasNext())
+            {
+                writer.write(iterator.next());
+            }
         }
         catch (Exception e)
         {
@@ -177,14 +394,81 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
         }
     }
 
-    private void write(Map<String, List<Map<Integer, String>>> dataMap, Map<String, List<String>> titleMap,
-            OutputStream stream, Workbook workbook) throws IOException
+    @Override
+    public void write(Stream<Map<Integer, String>> stream, List<String> titleList, List<DataType> dataTypeList,
+            OutputStream os)
+    {
+        try (Stream<Map<Integer, String>> s = stream)
+        {
+            write(s.iterator(), titleList, dataTypeList, os);
+        }
+    }
+
+    @Override
+    public RowWriter openWriter(List<String> titleList, List<DataType> dataTypeList, OutputStream os)
+    {
+        return new WorkbookWriter(titleList, dataTypeList, os);
+    }
+
+    private void write(Map<String, ? extends Iterator<Map<Integer, String>>> iteratorMap,
+            Map<String, List<String>> titleMap, Map<String, List<DataType>> dataTypeMap, OutputStream stream,
+            Workbook workbook) throws IOException
+    {
+        try
+        {
+            // 根据list生成sheet页
+            createSheet(workbook, titleMap, dataTypeMap, iteratorMap);
+            // 向excel写入数据
+            workbook.write(stream);
+            stream.flush();
+        }
+        finally
+        {
+            if (workbook instanceof SXSSFWorkbook)
+            {
+                // 删除临时文件
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+        }
+    }
+
+    /**
+     * 创建工作簿
+     *
+     * @param xls 是否xls
+     * @param sxssf 是否流式写入
+     * @return 工作簿
+     */
+    private Workbook createWorkbook(boolean xls, boolean sxssf)
     {
-        // 根据list生成sheet页
-        createSheet(workbook, titleMap, dataMap);
-        // 向excel写入数据
-        workbook.write(stream);
-        stream.flush();
+        if (xls)
+        {
+            return new HSSFWorkbook();
+        }
+        return sxssf ? new SXSSFWorkbook(null, window, compress, sharedStrings) : new XSSFWorkbook();
+    }
+
+    /**
+     * 数据列表转为迭代器
+     *
+     * @param dataMap Map&lt;sheetName, List&lt;Map&lt;Integer, String&gt;&gt;&gt;
+     * @return Map&lt;sheetName, Iterator&lt;Map&lt;Integer, String&gt;&gt;&gt;
+     */
+    private Map<String, Iterator<Map<Integer, String>>> toIteratorMap(
+            Map<String, List<Map<Integer, String>>> dataMap)
+    {
+        Map<String, Iterator<Map<Integer, String>>> iteratorMap = newHashMap();
+        if (isNotEmpty(dataMap))
+        {
+            dataMap.forEach((sheetName, list) ->
+            {
+                if (list != null)
+                {
+                    iteratorMap.put(sheetName, list.iterator());
+                }
+            });
+        }
+        return iteratorMap;
     }
 
     /**
@@ -201,7 +485,7 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
         {
             return null;
         }
-        List<Map<Integer, String>> dataList = new ArrayList<>();
+        List<Map<Integer, String>> dataList = new RowTable();
         addSheetData(workbook, sheetIndex, startRow, dataList);
         return dataList;
     }
@@ -278,10 +562,7 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
                     }
                     else
                     {
-                        cell.setCellType(STRING);
-                        cellValue = cell.getRichStringCellValue()
-                                .getString()
-                                .trim();
+                        cellValue = toText(cell.getNumericCellValue());
                     }
                     break;
                 case STRING:
@@ -333,63 +614,70 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
     }
 
     /**
-     * 根据list生成sheet
+     * 根据list生成sheet，sheet和样式串行创建，SXSSF多sheet且不共享字符串表时行数据并行写入
      *
      * @param book 工作簿
      * @param titleMap Map&lt;sheetName, List&lt;title&gt;&gt;
+     * @param dataTypeMap Map&lt;sheetName, List&lt;DataType&gt;&gt;
      * @param dataMap 数据
      */
     private void createSheet(Workbook book, Map<String, List<String>> titleMap,
-            Map<String, List<Map<Integer, String>>> dataMap)
+            Map<String, List<DataType>> dataTypeMap, Map<String, ? extends Iterator<Map<Integer, String>>> dataMap)
     {
         if (isNotEmpty(titleMap))
         {
+            boolean parallel = parallelSheets && !sharedStrings && titleMap.size() > 1
+                    && book instanceof SXSSFWorkbook;
+            // 工作簿共用单元格样式
+            StyleRegistry styles = new StyleRegistry(book);
+            List<CompletableFuture<Void>> futureList = newArrayList();
             for (Entry<String, List<String>> entry : titleMap.entrySet())
             {
                 String key = entry.getKey();
-                setSheet(book, key, entry.getValue(), dataMap.get(key));
-            }
-        }
-    }
-
-    private void setSheet(Workbook book, String sheetName, List<String> titles, List<Map<Integer, String>> list)
-    {
-        Sheet sheet = book.createSheet(sheetName);
-        // 每页一个单元格样式
-        CellStyle style = book.createCellStyle();
-        // 设置标题
-        setTitleValue(sheet, titles, style);
-        // 错误信息单元格样式
-        CellStyle etyle;
-        Map<Integer, String> dataMap;
-        boolean hasError;
-        if (isNotEmpty(list))
-        {
-            for (int i = 0; i < list.size(); i++)
-            {
-                dataMap = list.get(i);
-                hasError = isNotBlank(dataMap.get(ERR_COL));
-                // 设置错误信息就将整行设为红色
-                if (hasError)
+                List<String> titles = entry.getValue();
+                Sheet sheet = book.createSheet(key);
+                // 设置标题和列宽
+                setTitleValue(sheet, titles, styles.get(STRING, false));
+                Iterator<Map<Integer, String>> rows = dataMap.get(key);
+                if (rows == null)
                 {
-                    etyle = book.createCellStyle();
-                    etyle.setFillForegroundColor(RED.getIndex());
-                    etyle.setFillBackgroundColor(RED.getIndex());
-                    etyle.setFillPattern(SPARSE_DOTS);
-                    etyle.setVerticalAlignment(VerticalAlignment.CENTER);
-                    etyle.setAlignment(HorizontalAlignment.CENTER);
-                    setRow(sheet, titles, i + 1, dataMap, etyle, true);
+                    continue;
+                }
+                SheetWriter writer = new SheetWriter(sheet, titles,
+                        new ColumnStyle(titles.size(), dataTypeMap != null ? dataTypeMap.get(key) : null, styles));
+                if (parallel)
+                {
+                    futureList.add(runAsync(() -> rows.forEachRemaining(writer::write), executor));
                 }
                 else
                 {
-                    setRow(sheet, titles, i + 1, dataMap, style, false);
+                    rows.forEachRemaining(writer::write);
                 }
             }
+            join(futureList);
+        }
+    }
+
+    /**
+     * 等待全部sheet写完
+     *
+     * @param futureList sheet任务
+     */
+    private void join(List<CompletableFuture<Void>> futureList)
+    {
+        try
+        {
+            allOf(futureList.toArray(new CompletableFuture[0])).join();
+        }
+        catch (CompletionException e)
+        {
+            Throwable cause = e.getCause();
+            throw cause instanceof BaseException ? (BaseException) cause : new BaseException(cause);
         }
     }
 
     /**
-     * 在当前sheet页的第一行写入标题
+     * 在当前sheet页的第一行写入标题，设置列宽
      *
      * @param sheet sheet页
      * @param titles 标题列表
@@ -399,15 +687,15 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
     {
         // 取第一行
         Row row = sheet.createRow(0);
-        boolean hasTitle = isNotEmpty(titles);
-        int i = 0;
-        if (hasTitle)
+        if (isNotEmpty(titles))
         {
-            for (int n = titles.size(); i < n; i++)
+            for (int i = 0, n = titles.size(); i < n; i++)
             {
+                sheet.setColumnWidth(i, 5000);
                 setCell(row, i, titles.get(i), cellStyle);
             }
         }
+        sheet.setAutobreaks(true);
     }
 
     /**
@@ -417,28 +705,32 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
      * @param titles 标题列表
      * @param rowNumber 行号
      * @param dataMap 数据
-     * @param cellStyle 样式
+     * @param columnStyle 列样式
      * @param hasError 错误信息
      */
     private void setRow(Sheet sheet, List<String> titles, int rowNumber, Map<Integer, String> dataMap,
-            CellStyle cellStyle, boolean hasError)
+            ColumnStyle columnStyle, boolean hasError)
     {
         // 取得当前行
         Row row = sheet.createRow(rowNumber);
         int i = 0;
-        int n = titles.size();
-        String value;
-        for (; i < n; i++)
+        for (int n = titles.size(); i < n; i++)
         {
-            value = dataMap.get(i);
-            sheet.setColumnWidth(i, 5000);
-            sheet.setAutobreaks(true);
-            setCell(row, i, value, cellStyle);
+            String value = dataMap.get(i);
+            if (columnStyle.numeric[i] && isNumber(value))
+            {
+                Cell cell = row.createCell(i);
+                cell.setCellStyle(columnStyle.get(i, hasError));
+                cell.setCellValue(Double.parseDouble(value));
+            }
+            else
+            {
+                setCell(row, i, value, columnStyle.get(i, hasError));
+            }
         }
         if (hasError)
         {
-            sheet.setColumnWidth(i, 8000);
-            setCell(row, i, dataMap.get(ERR_COL), cellStyle);
+            setCell(row, i, dataMap.get(ERR_COL), columnStyle.get(-1, true));
         }
     }
 
@@ -452,12 +744,6 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
      */
     private void setCell(Row row, int colNumber, String value, CellStyle cellStyle)
     {
-        // 垂直居中
-        cellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        // 水平居中
-        cellStyle.setAlignment(HorizontalAlignment.CENTER);
-        // 自动换行
-        cellStyle.setWrapText(true);
         // 设置单元格样式
         Cell cell = row.createCell(colNumber);
         cell.setCellStyle(cellStyle);
@@ -465,4 +751,326 @@ public class ExcelBatchServiceImpl implements ExcelBatchService
         cell.setCellValue(value);
     }
 
+    /**
+     * 是否可按数值写入，只接受不超过15位数字的十进制数，保证读取后数值不变。
+     * 有前导零的值(如编号007)按文本写入，保留前导零
+     *
+     * @param value 值
+     * @return 是否数值
+     */
+    private static boolean isNumber(String value)
+    {
+        if (value == null || value.isEmpty() || value.length() > 32)
+        {
+            return false;
+        }
+        int start = value.charAt(0) == '-' ? 1 : 0;
+        if (value.length() > start + 1 && value.charAt(start) == '0' && value.charAt(start + 1) != '.')
+        {
+            return false;
+        }
+        int digits = 0;
+        boolean point = false;
+        for (int i = start; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '.' && !point)
+            {
+                point = true;
+            }
+            else if (c >= '0' && c <= '9')
+            {
+                digits++;
+            }
+            else
+            {
+                return false;
+            }
+        }
+        return digits > 0 && digits <= 15;
+    }
+
+    /**
+     * 工作簿样式表，按(数据类型, 是否错误行)创建一次后共用，样式数不随行数增长。
+     * 数值类型使用各自的数据格式，其余类型按文本写入，共用文本样式
+     */
+    private static class StyleRegistry
+    {
+
+        /**
+         * 数值类型的数据格式
+         */
+        private static final Map<DataType, String> FORMAT_MAP = Map.of(INTEGER, "0", DOUBLE, "General");
+
+        /**
+         * 工作簿
+         */
+        private final Workbook book;
+
+        /**
+         * 样式 Map&lt;数据类型, 样式&gt;
+         */
+        private final Map<DataType, CellStyle> styleMap = new EnumMap<>(DataType.class);
+
+        /**
+         * 错误行样式 Map&lt;数据类型, 样式&gt;
+         */
+        private final Map<DataType, CellStyle> errorStyleMap = new EnumMap<>(DataType.class);
+
+        /**
+         * 构造方法
+         *
+         * @param book 工作簿
+         */
+        StyleRegistry(Workbook book)
+        {
+            this.book = book;
+        }
+
+        /**
+         * 取样式，不存在时创建，只能在创建sheet的线程中调用
+         *
+         * @param dataType 数据类型
+         * @param error 是否错误行
+         * @return 样式
+         */
+        CellStyle get(DataType dataType, boolean error)
+        {
+            DataType key = isNumeric(dataType) ? dataType : STRING;
+            return (error ? errorStyleMap : styleMap).computeIfAbsent(key, k -> createCellStyle(k, error));
+        }
+
+        /**
+         * 是否按数值写入的类型
+         *
+         * @param dataType 数据类型
+         * @return 是否数值
+         */
+        static boolean isNumeric(DataType dataType)
+        {
+            return dataType != null && FORMAT_MAP.containsKey(dataType);
+        }
+
+        /**
+         * 创建单元格样式，居中、自动换行
+         *
+         * @param dataType 数据类型
+         * @param error 是否错误行样式
+         * @return 样式
+         */
+        private CellStyle createCellStyle(DataType dataType, boolean error)
+        {
+            CellStyle cellStyle = book.createCellStyle();
+            if (error)
+            {
+                cellStyle.setFillForegroundColor(RED.getIndex());
+                cellStyle.setFillBackgroundColor(RED.getIndex());
+                cellStyle.setFillPattern(SPARSE_DOTS);
+            }
+            String format = FORMAT_MAP.get(dataType);
+            if (format != null)
+            {
+                cellStyle.setDataFormat(book.createDataFormat()
+                        .getFormat(format));
+            }
+            // 垂直居中
+            cellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+            // 水平居中
+            cellStyle.setAlignment(HorizontalAlignment.CENTER);
+            // 自动换行
+            cellStyle.setWrapText(true);
+            return cellStyle;
+        }
+
+    }
+
+    /**
+     * 一个sheet各列的样式，创建sheet时解析，写行时只按下标取
+     */
+    private static class ColumnStyle
+    {
+
+        /**
+         * 各列是否数值
+         */
+        private final boolean[] numeric;
+
+        /**
+         * 各列样式
+         */
+        private final CellStyle[] styles;
+
+        /**
+         * 各列错误行样式
+         */
+        private final CellStyle[] errorStyles;
+
+        /**
+         * 错误信息列样式
+         */
+        private final CellStyle errorStyle;
+
+        /**
+         * 构造方法
+         *
+         * @param columns 列数
+         * @param dataTypes 各列数据类型
+         * @param registry 样式表
+         */
+        ColumnStyle(int columns, List<DataType> dataTypes, StyleRegistry registry)
+        {
+            numeric = new boolean[columns];
+            styles = new CellStyle[columns];
+            errorStyles = new CellStyle[columns];
+            for (int i = 0; i < columns; i++)
+            {
+                DataType dataType = dataTypes != null && i < dataTypes.size() ? dataTypes.get(i) : STRING;
+                numeric[i] = StyleRegistry.isNumeric(dataType);
+                styles[i] = registry.get(dataType, false);
+                errorStyles[i] = registry.get(dataType, true);
+            }
+            errorStyle = registry.get(STRING, true);
+        }
+
+        /**
+         * 取列样式
+         *
+         * @param column 列号，负数为错误信息列
+         * @param error 是否错误行
+         * @return 样式
+         */
+        CellStyle get(int column, boolean error)
+        {
+            if (column < 0)
+            {
+                return errorStyle;
+            }
+            return error ? errorStyles[column] : styles[column];
+        }
+
+    }
+
+    /**
+     * sheet逐行写入，第一条错误行出现时设置错误列宽
+     */
+    private class SheetWriter
+    {
+
+        /**
+         * sheet页
+         */
+        private final Sheet sheet;
+
+        /**
+         * 标题列表
+         */
+        private final List<String> titles;
+
+        /**
+         * 列样式
+         */
+        private final ColumnStyle columnStyle;
+
+        /**
+         * 已写入行数
+         */
+        private int rows;
+
+        /**
+         * 是否已设置错误列宽
+         */
+        private boolean errorColumn;
+
+        /**
+         * 构造方法
+         *
+         * @param sheet sheet页
+         * @param titles 标题列表
+         * @param columnStyle 列样式
+         */
+        SheetWriter(Sheet sheet, List<String> titles, ColumnStyle columnStyle)
+        {
+            this.sheet = sheet;
+            this.titles = titles;
+            this.columnStyle = columnStyle;
+        }
+
+        /**
+         * 写入一行
+         *
+         * @param dataMap 行数据
+         */
+        void write(Map<Integer, String> dataMap)
+        {
+            boolean hasError = isNotBlank(dataMap.get(ERR_COL));
+            if (hasError && !errorColumn)
+            {
+                sheet.setColumnWidth(titles.size(), 8000);
+                errorColumn = true;
+            }
+            setRow(sheet, titles, ++rows, dataMap, columnStyle, hasError);
+        }
+
+    }
+
+    /**
+     * 单sheet的SXSSF逐行写入，关闭时输出工作簿并删除临时文件
+     */
+    private class WorkbookWriter implements RowWriter
+    {
+
+        /**
+         * 工作簿
+         */
+        private final SXSSFWorkbook book;
+
+        /**
+         * sheet写入
+         */
+        private final SheetWriter writer;
+
+        /**
+         * 输出流
+         */
+        private final OutputStream os;
+
+        /**
+         * 构造方法，创建sheet并写入标题
+         *
+         * @param titles 标题列表
+         * @param dataTypes 数据类型
+         * @param os 输出流
+         */
+        WorkbookWriter(List<String> titles, List<DataType> dataTypes, OutputStream os)
+        {
+            this.os = os;
+            book = (SXSSFWorkbook) createWorkbook(false, true);
+            StyleRegistry styles = new StyleRegistry(book);
+            Sheet sheet = book.createSheet("Sheet1");
+            setTitleValue(sheet, titles, styles.get(STRING, false));
+            writer = new SheetWriter(sheet, titles, new ColumnStyle(titles.size(), dataTypes, styles));
+        }
+
+        @Override
+        public void write(Map<Integer, String> dataMap)
+        {
+            writer.write(dataMap);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try (Workbook workbook = book; OutputStream stream = os)
+            {
+                workbook.write(stream);
+                stream.flush();
+            }
+            finally
+            {
+                book.dispose();
+            }
+        }
+
+    }
+
 }
@@ -16,26 +16,68 @@
 
 package org.bricks.poi.service;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.transform;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
+import static org.bricks.module.constants.Constants.PoiConstants.CSV_DELIMITER;
+import static org.bricks.module.constants.Constants.PoiConstants.TSV_DELIMITER;
+import static org.springframework.context.i18n.LocaleContextHolder.getLocale;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
 
 import javax.annotation.Resource;
 
+import org.apache.poi.util.TempFile;
+import org.bricks.exception.BaseException;
 import org.bricks.module.bean.BatchData;
+import org.bricks.module.bean.RowTable;
 import org.bricks.module.bean.TableConfig;
+import org.bricks.module.bean.ValidateContext;
 import org.bricks.module.converter.EntityDataMapConverter;
 import org.bricks.module.enums.DataType;
+import org.bricks.module.service.ErrorReport;
 import org.bricks.module.service.ExcelService;
 import org.bricks.module.service.TableConfigLoader;
 import org.bricks.module.validate.factory.FilterManagerFactory;
 import org.bricks.module.validate.manager.ValidateFilterManager;
+import org.bricks.tika.TikaService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 /**
@@ -54,6 +96,36 @@ public class ExcelServiceImpl implements ExcelService
     @Value("${bricks.poi.transaction:true}")
     private boolean transaction;
 
+    /**
+     * 分块导入每块行数，0为整表导入
+     */
+    @Value("${bricks.poi.chunk:0}")
+    private int chunk;
+
+    /**
+     * 分块导入各阶段之间的队列容量(块数)
+     */
+    @Value("${bricks.poi.queue:2}")
+    private int queue;
+
+    /**
+     * 分块导入各阶段等待上一阶段的超时时间(秒)
+     */
+    @Value("${bricks.poi.timeout:600}")
+    private long timeout;
+
+    /**
+     * 多sheet导出时各sheet并行转换
+     */
+    @Value("${bricks.poi.parallelSheets:false}")
+    private boolean parallelSheets;
+
+    /**
+     * 异步
+     */
+    @Resource
+    private ThreadPoolTaskExecutor executor;
+
     /**
      * 加载表配置
      */
@@ -72,28 +144,88 @@ public class ExcelServiceImpl implements ExcelService
     @Resource
     private ExcelBatchService excelBatchService;
 
+    /**
+     * csv批量接口
+     */
+    @Resource
+    private CsvBatchService csvBatchService;
+
+    /**
+     * 文件类型
+     */
+    @Resource
+    private TikaService tikaService;
+
     /**
      * 过滤管理器工厂
      */
     @Resource
     private FilterManagerFactory filterManagerFactory;
 
-    @SuppressWarnings(UNCHECKED)
     @Override
     public <T> List<T> importExcel(InputStream is, int sheetNum, List<Map<Integer, String>> errorList, Class<T> clazz)
+    {
+        List<List<T>> result = newArrayList();
+        return importTable(is, sheetNum, errorList::add, clazz, 0, (list, end) -> result.add(list)) ? result.get(0)
+                : null;
+    }
+
+    @Override
+    public <T> boolean importExcel(InputStream is, int sheetNum, List<Map<Integer, String>> errorList, Class<T> clazz,
+            Consumer<List<T>> consumer)
+    {
+        return importExcel(is, sheetNum, errorList, clazz, 0, (list, end) -> consumer.accept(list));
+    }
+
+    @Override
+    public <T> boolean importExcel(InputStream is, int sheetNum, List<Map<Integer, String>> errorList, Class<T> clazz,
+            int skip, ObjIntConsumer<List<T>> consumer)
+    {
+        return importExcel(is, sheetNum, errorList::add, clazz, skip, consumer);
+    }
+
+    @Override
+    public <T> boolean importExcel(InputStream is, int sheetNum, Consumer<Map<Integer, String>> errorConsumer,
+            Class<T> clazz, int skip, ObjIntConsumer<List<T>> consumer)
+    {
+        if (chunk <= 0)
+        {
+            return importTable(is, sheetNum, errorConsumer, clazz, skip, consumer);
+        }
+        return new ChunkPipeline<>(clazz, errorConsumer, skip).run(is, sheetNum, consumer);
+    }
+
+    /**
+     * 整表导入，全部行校验后转换skip之后的行
+     *
+     * @param <T> 导入类型
+     * @param is 输入流
+     * @param sheetNum 页码
+     * @param errorConsumer 错误行处理
+     * @param clazz 导入类型
+     * @param skip 跳过的数据行数
+     * @param consumer 实体列表和总行数的处理
+     * @return 开启事务且校验失败时返回false
+     */
+    @SuppressWarnings(UNCHECKED)
+    private <T> boolean importTable(InputStream is, int sheetNum, Consumer<Map<Integer, String>> errorConsumer,
+            Class<T> clazz, int skip, ObjIntConsumer<List<T>> consumer)
     {
         TableConfig config = configLoader.load(clazz);
-        BatchData data = excelBatchService.getData(is, sheetNum, config.getStartRow());
+        BatchData data = getData(is, sheetNum, config.getStartRow());
         ValidateFilterManager validateManager = filterManagerFactory.build(config);
         List<Map<Integer, String>> dataList = data.getDataMap();
         boolean rtn = validateManager.validate(dataList, config);
         if (transaction && !rtn)
         {
-            errorList.addAll(dataList);
-            return null;
+            dataList.forEach(errorConsumer);
+            return false;
         }
-        return (List<T>) entityDataMapConverter.reverseConvertList(dataList,
-                new Object[] {clazz, config.getColumnMap(), errorList});
+        int size = dataList.size();
+        List<Map<Integer, String>> rows = skip > 0 ? dataList.subList(Math.min(skip, size), size) : dataList;
+        consumer.accept((List<T>) entityDataMapConverter.reverseConvertList(rows,
+                new Object[] {clazz, config.getColumnMap(), errorConsumer}), size);
+        return true;
     }
 
     @Override
@@ -115,6 +247,60 @@ public class ExcelServiceImpl implements ExcelService
         export(config, dataMap, os, fields);
     }
 
+    @Override
+    @SuppressWarnings(UNCHECKED)
+    public void export(Pageable pageable, Function<Pageable, ? extends Page<?>> pageLoader, OutputStream os,
+            String[] fields, Class<?> clazz, char delimiter)
+    {
+        TableConfig config = configLoader.load(clazz);
+        Object[] parameters = {config.getFields(fields), config.getColumnMap()};
+        PageIterator pages = new PageIterator(pageable, pageLoader);
+        Iterator<Map<Integer, String>> rows = concat(transform(pages,
+                page -> entityDataMapConverter.convertList((List<Object>) page, parameters)
+                        .iterator()));
+        try
+        {
+            if (delimiter == 0)
+            {
+                excelBatchService.write(rows, config.getTitles(fields), config.getDataTypes(fields), os);
+            }
+            else
+            {
+                csvBatchService.write(rows, config.getTitles(fields), config.getDataTypes(fields), delimiter, os);
+            }
+        }
+        finally
+        {
+            pages.cancel();
+        }
+    }
+
+    @Override
+    public ErrorReport createErrorReport(Class<?> clazz, char delimiter)
+    {
+        List<String> titles = configLoader.load(clazz)
+                .getTitles();
+        String suffix = delimiter == 0 ? ".xlsx" : delimiter == TSV_DELIMITER ? ".tsv" : ".csv";
+        File file = null;
+        try
+        {
+            file = TempFile.createTempFile("bricks-error-", suffix);
+            OutputStream os = new FileOutputStream(file);
+            // 按原文本写入，不转换数值
+            RowWriter writer = delimiter == 0 ? excelBatchService.openWriter(titles, null, os)
+                    : csvBatchService.openWriter(titles, null, delimiter, os);
+            return new ErrorReportWriter(file, writer);
+        }
+        catch (IOException e)
+        {
+            if (file != null && !file.delete())
+            {
+                file.deleteOnExit();
+            }
+            throw new BaseException(e);
+        }
+    }
+
     private void export(TableConfig config, Map<String, List<Map<Integer, String>>> dataMap, OutputStream os,
             List<String[]> fields)
     {
@@ -125,6 +311,87 @@ public class ExcelServiceImpl implements ExcelService
         excelBatchService.write(dataMap, titleMap, dataTypeMap, os);
     }
 
+    /**
+     * 按内容类型读取全部行，csv/tsv不经过POI
+     *
+     * @param is 输入流
+     * @param sheetNum 页码
+     * @param startRow 起始行
+     * @return 批量数据
+     */
+    private BatchData getData(InputStream is, int sheetNum, int startRow)
+    {
+        InputStream stream = new BufferedInputStream(is);
+        char delimiter = getDelimiter(stream);
+        return delimiter == 0 ? excelBatchService.getData(stream, sheetNum, startRow)
+                : csvBatchService.getData(stream, delimiter, startRow);
+    }
+
+    /**
+     * 按内容类型流式读取，csv/tsv不经过POI
+     *
+     * @param is 输入流
+     * @param sheetNum 页码
+     * @param startRow 起始行
+     * @return 行数据流
+     */
+    private Stream<Map<Integer, String>> stream(InputStream is, int sheetNum, int startRow)
+    {
+        InputStream stream = new BufferedInputStream(is);
+        char delimiter = getDelimiter(stream);
+        return delimiter == 0 ? excelBatchService.stream(stream, sheetNum, startRow)
+                : csvBatchService.stream(stream, delimiter, startRow);
+    }
+
+    /**
+     * 识别文本文件的分隔符，纯文本按首行中制表符和逗号的数量判断
+     *
+     * @param stream 支持mark的输入流
+     * @return 分隔符，excel文件为0
+     */
+    private char getDelimiter(InputStream stream)
+    {
+        String mimeType = tikaService.getMimeType(null, stream);
+        switch (mimeType)
+        {
+            case "text/csv":
+                return CSV_DELIMITER;
+            case "text/tab-separated-values":
+                return TSV_DELIMITER;
+            case "text/plain":
+                return countFirstLine(stream, TSV_DELIMITER) > countFirstLine(stream, CSV_DELIMITER) ? TSV_DELIMITER
+                        : CSV_DELIMITER;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * 首行中字符出现次数，读取后重置流
+     *
+     * @param stream 支持mark的输入流
+     * @param c 字符
+     * @return 次数
+     */
+    private static int countFirstLine(InputStream stream, char c)
+    {
+        int count = 0;
+        stream.mark(8192);
+        try
+        {
+            for (int i = 0, b = stream.read(); i < 8192 && b > -1 && b != '\n'; i++, b = stream.read())
+            {
+                count += b == c ? 1 : 0;
+            }
+            stream.reset();
+        }
+        catch (IOException e)
+        {
+            throw new BaseException(e);
+        }
+        return count;
+    }
+
     /**
      * 标题对应的map
      * 
@@ -156,16 +423,52 @@ public class ExcelServiceImpl implements ExcelService
     protected void fillObjectDataMap(List<List<Object>> list, TableConfig config,
             Map<String, List<Map<Integer, String>>> dataMap, List<String[]> fields)
     {
-        int i = 0;
         boolean hasTitles = isNotEmpty(fields);
+        if (parallelSheets && list.size() > 1)
+        {
+            List<CompletableFuture<List<Map<Integer, String>>>> futureList = newArrayListWithCapacity(list.size());
+            for (int i = 0, n = list.size(); i < n; i++)
+            {
+                List<Object> subList = list.get(i);
+                Object[] parameters = {config.getFields(hasTitles ? fields.get(i) : null), config.getColumnMap()};
+                futureList.add(supplyAsync(() -> entityDataMapConverter.convertList(subList, parameters), executor));
+            }
+            int i = 0;
+            for (CompletableFuture<List<Map<Integer, String>>> future : futureList)
+            {
+                dataMap.put("Sheet" + i++, join(future));
+            }
+            return;
+        }
+        int i = 0;
         for (List<Object> subList : list)
         {
             List<Map<Integer, String>> mapList = entityDataMapConverter.convertList(subList,
-                    new Object[] {config.getFields(hasTitles ? fields.get(i) : null)});
+                    new Object[] {config.getFields(hasTitles ? fields.get(i) : null), config.getColumnMap()});
             dataMap.put("Sheet" + i++, mapList);
         }
     }
 
+    /**
+     * 等待异步转换结果
+     *
+     * @param future 转换任务
+     * @return 转换结果
+     * @param <R> 结果类型
+     */
+    private static <R> R join(CompletableFuture<R> future)
+    {
+        try
+        {
+            return future.join();
+        }
+        catch (CompletionException e)
+        {
+            Throwable cause = e.getCause();
+            throw cause instanceof BaseException ? (BaseException) cause : new BaseException(cause);
+        }
+    }
+
     private void fillDataMap(List<List<Map<Integer, String>>> list, Map<String, List<Map<Integer, String>>> dataMap)
     {
         int i = 0;
@@ -175,4 +478,365 @@ public class ExcelServiceImpl implements ExcelService
         }
     }
 
+    /**
+     * 分页迭代，取出一页时在异步线程中预取下一页
+     */
+    private class PageIterator implements Iterator<List<?>>
+    {
+
+        /**
+         * 分页查询
+         */
+        private final Function<Pageable, ? extends Page<?>> pageLoader;
+
+        /**
+         * 下一页，没有时为null
+         */
+        private CompletableFuture<? extends Page<?>> next;
+
+        /**
+         * 构造方法，第一页在调用线程中查询
+         *
+         * @param pageable 第一页
+         * @param pageLoader 分页查询
+         */
+        PageIterator(Pageable pageable, Function<Pageable, ? extends Page<?>> pageLoader)
+        {
+            this.pageLoader = pageLoader;
+            next = completedFuture(pageLoader.apply(pageable));
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        @Override
+        public List<?> next()
+        {
+            if (next == null)
+            {
+                throw new NoSuchElementException();
+            }
+            Page<?> page = join(next);
+            next = page != null && page.hasNext()
+                    ? supplyAsync(() -> pageLoader.apply(page.nextPageable()), executor)
+                    : null;
+            return page != null ? page.getContent() : emptyList();
+        }
+
+        /**
+         * 写入结束或失败时放弃未取走的预取结果
+         */
+        void cancel()
+        {
+            if (next != null)
+            {
+                next.cancel(false);
+                next = null;
+            }
+        }
+
+    }
+
+    /**
+     * 分块导入流水线：读取线程按块读行，校验线程逐块校验并转换，调用线程逐块处理实体，各阶段之间为有界队列。
+     * 表级校验状态(唯一性)通过校验上下文在块之间传递。开启事务时保留全部行用于出错时返回，校验失败后不再转换。
+     *
+     * @param <T> 导入类型
+     */
+    private class ChunkPipeline<T>
+    {
+
+        /**
+         * 读取结束标记
+         */
+        private final List<Map<Integer, String>> rowEnd = newArrayList();
+
+        /**
+         * 转换结束标记
+         */
+        private final EntityChunk entityEnd = new EntityChunk(newArrayList(), -1);
+
+        /**
+         * 导入类型
+         */
+        private final Class<T> clazz;
+
+        /**
+         * 错误行处理
+         */
+        private final Consumer<Map<Integer, String>> errorConsumer;
+
+        /**
+         * 跳过的数据行数
+         */
+        private final int skip;
+
+        /**
+         * 表配置
+         */
+        private final TableConfig config;
+
+        /**
+         * 行数据队列
+         */
+        private final BlockingQueue<List<Map<Integer, String>>> rowQueue = new ArrayBlockingQueue<>(queue);
+
+        /**
+         * 实体队列
+         */
+        private final BlockingQueue<EntityChunk> entityQueue = new ArrayBlockingQueue<>(queue);
+
+        /**
+         * 停止标记，任一阶段出错或结束时设置
+         */
+        private final AtomicBoolean stop = new AtomicBoolean();
+
+        /**
+         * 阶段异常
+         */
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        /**
+         * 开启事务时保留的全部行
+         */
+        private final List<Map<Integer, String>> dataList = newArrayList();
+
+        /**
+         * 开启事务时转换失败的行，校验失败时已包含在全部行中，不重复输出
+         */
+        private final List<Map<Integer, String>> convertErrors = newArrayList();
+
+        /**
+         * 校验结果
+         */
+        private volatile boolean valid = true;
+
+        /**
+         * 构造方法
+         *
+         * @param clazz 导入类型
+         * @param errorConsumer 错误行处理
+         * @param skip 跳过的数据行数
+         */
+        ChunkPipeline(Class<T> clazz, Consumer<Map<Integer, String>> errorConsumer, int skip)
+        {
+            this.clazz = clazz;
+            this.errorConsumer = errorConsumer;
+            this.skip = skip;
+            config = configLoader.load(clazz);
+        }
+
+        /**
+         * 执行流水线
+         *
+         * @param is 输入流
+         * @param sheetNum 页码
+         * @param consumer 实体列表和已处理行数的处理
+         * @return 开启事务且校验失败时返回false
+         */
+        boolean run(InputStream is, int sheetNum, ObjIntConsumer<List<T>> consumer)
+        {
+            ValidateFilterManager validateManager = filterManagerFactory.build(config);
+            Locale locale = getLocale();
+            try
+            {
+                runAsync(() -> read(is, sheetNum), executor);
+                runAsync(() -> convert(validateManager, locale), executor);
+                for (EntityChunk e = poll(entityQueue); e != null && e != entityEnd; e = poll(entityQueue))
+                {
+                    consumer.accept(e.list, e.end);
+                }
+            }
+            catch (RejectedExecutionException e)
+            {
+                fail(e);
+                throw e;
+            }
+            finally
+            {
+                stop.set(true);
+            }
+            if (error.get() != null)
+            {
+                throw new BaseException(error.get());
+            }
+            (valid ? convertErrors : dataList).forEach(errorConsumer);
+            return valid;
+        }
+
+        /**
+         * 读取阶段
+         *
+         * @param is 输入流
+         * @param sheetNum 页码
+         */
+        private void read(InputStream is, int sheetNum)
+        {
+            try (Stream<Map<Integer, String>> stream = stream(is, sheetNum, config.getStartRow()))
+            {
+                Iterator<Map<Integer, String>> iterator = stream.iterator();
+                List<Map<Integer, String>> rows = new RowTable(chunk);
+                while (!stop.get() && iterator.hasNext())
+                {
+                    rows.add(iterator.next());
+                    if (rows.size() == chunk)
+                    {
+                        put(rowQueue, rows);
+                        rows = new RowTable(chunk);
+                    }
+                }
+                if (!rows.isEmpty())
+                {
+                    put(rowQueue, rows);
+                }
+                put(rowQueue, rowEnd);
+            }
+            catch (Throwable e)
+            {
+                fail(e);
+            }
+        }
+
+        /**
+         * 校验转换阶段
+         *
+         * @param validateManager 校验管理器
+         * @param locale 调用线程的语言
+         */
+        @SuppressWarnings(UNCHECKED)
+        private void convert(ValidateFilterManager validateManager, Locale locale)
+        {
+            LocaleContextHolder.setLocale(locale);
+            try
+            {
+                ValidateContext context = new ValidateContext();
+                Consumer<Map<Integer, String>> convertConsumer = transaction ? convertErrors::add : errorConsumer;
+                Object[] parameters = {clazz, config.getColumnMap(), convertConsumer};
+                for (List<Map<Integer, String>> rows = poll(rowQueue); rows != null && rows != rowEnd;
+                        rows = poll(rowQueue))
+                {
+                    boolean rtn = validateManager.validate(rows, config, context);
+                    int offset = context.getOffset();
+                    int end = offset + rows.size();
+                    context.setOffset(end);
+                    if (transaction)
+                    {
+                        dataList.addAll(rows);
+                        valid = valid && rtn;
+                    }
+                    if (valid && end > skip)
+                    {
+                        List<Map<Integer, String>> list = offset < skip ? rows.subList(skip - offset, rows.size())
+                                : rows;
+                        put(entityQueue, new EntityChunk(
+                                (List<T>) entityDataMapConverter.reverseConvertList(list, parameters), end));
+                    }
+                }
+                put(entityQueue, entityEnd);
+            }
+            catch (Throwable e)
+            {
+                fail(e);
+            }
+            finally
+            {
+                LocaleContextHolder.resetLocaleContext();
+            }
+        }
+
+        /**
+         * 放入队列，停止时放弃
+         *
+         * @param <E> 元素类型
+         * @param blockingQueue 队列
+         * @param e 元素
+         * @throws InterruptedException 中断异常
+         */
+        private <E> void put(BlockingQueue<E> blockingQueue, E e) throws InterruptedException
+        {
+            boolean offered = false;
+            while (!offered && !stop.get())
+            {
+                offered = blockingQueue.offer(e, 100, MILLISECONDS);
+            }
+        }
+
+        /**
+         * 从队列取出，停止或超时时返回null，超时视为失败
+         *
+         * @param <E> 元素类型
+         * @param blockingQueue 队列
+         * @return 元素
+         */
+        private <E> E poll(BlockingQueue<E> blockingQueue)
+        {
+            E e = null;
+            long deadline = System.nanoTime() + SECONDS.toNanos(timeout);
+            try
+            {
+                while (e == null && !stop.get())
+                {
+                    if (System.nanoTime() - deadline > 0)
+                    {
+                        fail(new TimeoutException("import pipeline stage timed out after " + timeout + "s"));
+                        break;
+                    }
+                    e = blockingQueue.poll(100, MILLISECONDS);
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread()
+                        .interrupt();
+                fail(ex);
+            }
+            return e;
+        }
+
+        /**
+         * 记录异常并停止流水线
+         *
+         * @param e 异常
+         */
+        private void fail(Throwable e)
+        {
+            error.compareAndSet(null, e);
+            stop.set(true);
+        }
+
+        /**
+         * 转换后的一块实体
+         */
+        private class EntityChunk
+        {
+
+            /**
+             * 实体列表
+             */
+            private final List<T> list;
+
+            /**
+             * 本块结束时已处理的数据行数
+             */
+            private final int end;
+
+            /**
+             * 构造方法
+             *
+             * @param list 实体列表
+             * @param end 已处理的数据行数
+             */
+            EntityChunk(List<T> list, int end)
+            {
+                this.list = list;
+                this.end = end;
+            }
+
+        }
+
+    }
+
 }
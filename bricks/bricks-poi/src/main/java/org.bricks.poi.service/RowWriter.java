@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.poi.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 逐行写入，关闭时完成输出并关闭输出流
+ *
+ * @author fuzy
+ *
+ */
+public interface RowWriter extends Closeable
+{
+
+    /**
+     * 写入一行，含错误信息的行追加错误列
+     *
+     * @param dataMap 行数据
+     * @throws IOException IO异常
+     */
+    void write(Map<Integer, String> dataMap) throws IOException;
+
+}
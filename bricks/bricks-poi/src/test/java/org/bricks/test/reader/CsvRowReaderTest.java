@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bricks.poi.reader.CsvRowReader;
+import org.junit.jupiter.api.Test;
+
+public class CsvRowReaderTest
+{
+
+    private static final String CSV = "\uFEFFname,remark,code\r\n"
+            + "\"Smith, John\",\"say \"\"hi\"\"\",001\r\n"
+            + "\"line1\r\nline2\",\"\",\" 002 \"\n"
+            + "\r\n"
+            + "last,\"a\"\"\",003";
+
+    @Test
+    public void testQuote()
+    {
+        List<Map<Integer, String>> rows = read(new StringReader(CSV), ',', 1);
+        assertEquals(3, rows.size());
+        assertEquals(List.of("Smith, John", "say \"hi\"", "001"), values(rows.get(0)));
+        assertEquals(List.of("line1\r\nline2", "", "002"), values(rows.get(1)));
+        assertEquals(List.of("last", "a\"", "003"), values(rows.get(2)));
+    }
+
+    @Test
+    public void testTitle()
+    {
+        List<Map<Integer, String>> rows = read(new StringReader(CSV), ',', 0);
+        // 字节序标记不属于第一个标题
+        assertEquals(List.of("name", "remark", "code"), values(rows.get(0)));
+        assertEquals(4, rows.size());
+    }
+
+    @Test
+    public void testLineBreak()
+    {
+        List<Map<Integer, String>> rows = read(new StringReader("a\tb\r1\t2\r\n3\t4\n5\t6\r\n"), '\t', 1);
+        assertEquals(List.of(List.of("1", "2"), List.of("3", "4"), List.of("5", "6")), valuesList(rows));
+    }
+
+    @Test
+    public void testRefill()
+    {
+        // 每次最多读取n个字符，引号、转义引号和CRLF都会落在缓冲区边界上
+        List<List<String>> expected = valuesList(read(new StringReader(CSV), ',', 0));
+        for (int n = 1; n <= 8; n++)
+        {
+            assertEquals(expected, valuesList(read(new ChunkReader(new StringReader(CSV), n), ',', 0)));
+        }
+    }
+
+    @Test
+    public void testBufferBoundary()
+    {
+        // 转义引号的两个字符分别位于第一个缓冲区末尾和第二个缓冲区开头
+        String head = "a,b\n" + "x".repeat(100) + ",\"";
+        String filler = "y".repeat((1 << 16) - 1 - head.length());
+        String csv = head + filler + "\"\"z\"\r\n" + "1,\"" + "w".repeat(1 << 16) + "\"\r\n";
+        List<Map<Integer, String>> rows = read(new StringReader(csv), ',', 1);
+        assertEquals(2, rows.size());
+        assertEquals("x".repeat(100), rows.get(0)
+                .get(0));
+        assertEquals(filler + "\"z", rows.get(0)
+                .get(1));
+        assertEquals("w".repeat(1 << 16), rows.get(1)
+                .get(1));
+    }
+
+    private static List<Map<Integer, String>> read(Reader reader, char delimiter, int startRow)
+    {
+        List<Map<Integer, String>> rows = new ArrayList<>();
+        new CsvRowReader(reader, delimiter, startRow).forEachRemaining(rows::add);
+        return rows;
+    }
+
+    private static List<String> values(Map<Integer, String> row)
+    {
+        return new ArrayList<>(row.values());
+    }
+
+    private static List<List<String>> valuesList(List<Map<Integer, String>> rows)
+    {
+        List<List<String>> list = new ArrayList<>();
+        rows.forEach(row -> list.add(values(row)));
+        return list;
+    }
+
+    private static class ChunkReader extends FilterReader
+    {
+
+        private final int chunk;
+
+        ChunkReader(Reader reader, int chunk)
+        {
+            super(reader);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException
+        {
+            return super.read(buffer, offset, Math.min(length, chunk));
+        }
+
+    }
+
+}
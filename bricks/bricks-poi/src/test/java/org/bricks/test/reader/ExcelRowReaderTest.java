@@ -0,0 +1,242 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.reader;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.bricks.poi.service.ExcelBatchServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExcelRowReaderTest
+{
+
+    private final ExcelBatchServiceImpl service = new ExcelBatchServiceImpl();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testXlsx() throws IOException
+    {
+        // 共享字符串
+        assertRoundTrip(write(XSSFWorkbook::new), "xlsx");
+    }
+
+    @Test
+    public void testInlineString() throws IOException
+    {
+        // 流式写入使用内联字符串
+        assertRoundTrip(write(SXSSFWorkbook::new), "xlsx");
+    }
+
+    @Test
+    public void testXls() throws IOException
+    {
+        assertRoundTrip(write(HSSFWorkbook::new), "xls");
+    }
+
+    @Test
+    public void testDate1904() throws IOException
+    {
+        byte[] bytes = write(() ->
+        {
+            XSSFWorkbook book = new XSSFWorkbook();
+            book.getCTWorkbook()
+                    .addNewWorkbookPr()
+                    .setDate1904(true);
+            return book;
+        });
+        List<Map<Integer, String>> rows = assertRoundTrip(bytes, "xlsx");
+        assertEquals("2020-01-03 03:04:05", rows.get(0)
+                .get(3));
+    }
+
+    @Test
+    public void testStringFormula() throws IOException
+    {
+        for (Supplier<Workbook> supplier : List.<Supplier<Workbook>>of(XSSFWorkbook::new, HSSFWorkbook::new))
+        {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            try (Workbook book = supplier.get())
+            {
+                Sheet sheet = book.createSheet();
+                sheet.createRow(0)
+                        .createCell(0)
+                        .setCellValue("title");
+                Row row = sheet.createRow(1);
+                row.createCell(0)
+                        .setCellFormula("\" a\"&\"b \"");
+                book.getCreationHelper()
+                        .createFormulaEvaluator()
+                        .evaluateAll();
+                book.write(os);
+            }
+            // 字符串结果的公式取缓存值
+            assertEquals(List.of(Map.of(0, "ab")), read(os.toByteArray(), 0, 1));
+        }
+    }
+
+    @Test
+    public void testOpenFailure()
+    {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayInputStream is = new ByteArrayInputStream("not excel".getBytes())
+        {
+            @Override
+            public void close()
+            {
+                closed.set(true);
+            }
+        };
+        try (Stream<Map<Integer, String>> stream = service.stream(is, 0, 1))
+        {
+            assertEquals(0, stream.count());
+        }
+        // 打开失败时关闭调用方的流
+        assertTrue(closed.get());
+    }
+
+    private List<Map<Integer, String>> assertRoundTrip(byte[] bytes, String suffix) throws IOException
+    {
+        Path path = Files.write(dir.resolve("data." + suffix), bytes);
+        List<Map<Integer, String>> expected = null;
+        for (int sheetIndex = 0; sheetIndex < 2; sheetIndex++)
+        {
+            for (int startRow = 0; startRow < 3; startRow++)
+            {
+                expected = service.getData(new ByteArrayInputStream(bytes), sheetIndex, startRow)
+                        .getDataMap();
+                assertFalse(expected.isEmpty());
+                assertEquals(expected, read(bytes, sheetIndex, startRow));
+                assertEquals(expected, service.getData(path, sheetIndex, startRow)
+                        .getDataMap());
+                try (Stream<Map<Integer, String>> stream = service.stream(path, sheetIndex, startRow))
+                {
+                    assertEquals(expected, stream.collect(toList()));
+                }
+            }
+        }
+        return service.getData(new ByteArrayInputStream(bytes), 0, 1)
+                .getDataMap();
+    }
+
+    private List<Map<Integer, String>> read(byte[] bytes, int sheetIndex, int startRow)
+    {
+        try (Stream<Map<Integer, String>> stream = service.stream(new ByteArrayInputStream(bytes), sheetIndex,
+                startRow))
+        {
+            return stream.collect(toList());
+        }
+    }
+
+    /**
+     * 写入两页测试数据：字符串、整数、小数、日期、公式、空行和稀疏列
+     */
+    private static byte[] write(Supplier<Workbook> supplier) throws IOException
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (Workbook book = supplier.get())
+        {
+            CellStyle dateStyle = book.createCellStyle();
+            dateStyle.setDataFormat(book.getCreationHelper()
+                    .createDataFormat()
+                    .getFormat("yyyy-mm-dd hh:mm:ss"));
+            for (int s = 0; s < 2; s++)
+            {
+                Sheet sheet = book.createSheet("sheet" + s);
+                Row title = sheet.createRow(0);
+                for (int c = 0; c < 8; c++)
+                {
+                    title.createCell(c)
+                            .setCellValue("title" + c);
+                }
+                for (int r = 1; r <= 60; r++)
+                {
+                    if (r % 7 == 0)
+                    {
+                        continue;
+                    }
+                    Row row = sheet.createRow(r);
+                    if (r % 11 == 0)
+                    {
+                        // 有单元格但全为空
+                        row.createCell(1)
+                                .setCellValue(" ");
+                        continue;
+                    }
+                    row.createCell(0)
+                            .setCellValue(" name" + s + "-" + r % 13 + " ");
+                    row.createCell(1)
+                            .setCellValue(r * 1000L - 100000);
+                    row.createCell(2)
+                            .setCellValue(r / 8.0 + 0.1);
+                    Calendar calendar = new GregorianCalendar(2020, Calendar.JANUARY, 2, 3, 4, 5);
+                    calendar.add(Calendar.DAY_OF_MONTH, r);
+                    row.createCell(3)
+                            .setCellValue(calendar.getTime());
+                    row.getCell(3)
+                            .setCellStyle(dateStyle);
+                    row.createCell(4)
+                            .setCellFormula("B" + (r + 1) + "+C" + (r + 1));
+                    if (r % 5 == 0)
+                    {
+                        // 稀疏列，中间空出第5、6列
+                        row.createCell(7)
+                                .setCellValue(r % 2 == 0 ? "x" + r : String.valueOf(r));
+                    }
+                }
+            }
+            if (!(book instanceof SXSSFWorkbook))
+            {
+                book.getCreationHelper()
+                        .createFormulaEvaluator()
+                        .evaluateAll();
+            }
+            book.write(os);
+            if (book instanceof SXSSFWorkbook)
+            {
+                ((SXSSFWorkbook) book).dispose();
+            }
+        }
+        return os.toByteArray();
+    }
+
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.service;
+
+import static java.time.Duration.ofSeconds;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.bricks.module.constants.Constants.PoiConstants.ERR_COL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.bricks.exception.BaseException;
+import org.bricks.module.bean.TableConfig;
+import org.bricks.module.converter.EntityDataMapConverter;
+import org.bricks.module.service.TableConfigLoader;
+import org.bricks.module.validate.factory.FilterManagerFactory;
+import org.bricks.module.validate.filter.AbstractValidateFilter;
+import org.bricks.module.validate.filter.RowValidateFilter;
+import org.bricks.module.validate.manager.FilterManagerImpl;
+import org.bricks.module.validate.manager.ValidateFilterManager;
+import org.bricks.poi.service.CsvBatchService;
+import org.bricks.poi.service.ExcelServiceImpl;
+import org.bricks.tika.TikaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.google.common.collect.ImmutableList;
+
+public class ChunkPipelineTest
+{
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile boolean failConvert;
+
+    private volatile String errorValue;
+
+    private volatile String invalidValue;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    public void shutdown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testChunks()
+    {
+        ExcelServiceImpl service = service(2, 4, 5);
+        List<Integer> ends = new ArrayList<>();
+        List<Object> entities = new ArrayList<>();
+        assertTrue(service.importExcel(input(), 0, new ArrayList<>(), Object.class, 1, (list, end) ->
+        {
+            ends.add(end);
+            entities.addAll(list);
+        }));
+        assertEquals(List.of(2, 4, 5), ends);
+        assertEquals(4, entities.size());
+    }
+
+    @Test
+    public void testConsumerFailure()
+    {
+        ExcelServiceImpl service = service(2, 4, 100);
+        assertThrows(IllegalStateException.class,
+                () -> service.importExcel(input(), 0, new ArrayList<>(), Object.class, 0, (list, end) ->
+                {
+                    throw new IllegalStateException();
+                }));
+        assertReaderStopped();
+    }
+
+    @Test
+    public void testConvertFailure()
+    {
+        ExcelServiceImpl service = service(2, 4, 100);
+        failConvert = true;
+        BaseException e = assertThrows(BaseException.class,
+                () -> service.importExcel(input(), 0, new ArrayList<>(), Object.class, 0, (list, end) ->
+                {
+                }));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+        assertReaderStopped();
+    }
+
+    @Test
+    public void testTransactionErrors()
+    {
+        ExcelServiceImpl service = service(2, 4, 6);
+        setField(service, "transaction", true);
+        errorValue = "1";
+        List<Map<Integer, String>> errorList = new ArrayList<>();
+        assertTrue(service.importExcel(input(), 0, errorList, Object.class, 0, (list, end) ->
+        {
+        }));
+        // 校验通过时只输出转换失败的行
+        assertEquals(List.of("1"), values(errorList));
+        // 第一块转换失败，第二块校验失败，全部行只输出一次
+        invalidValue = "3";
+        errorList.clear();
+        assertFalse(service.importExcel(input(), 0, errorList, Object.class, 0, (list, end) ->
+        {
+        }));
+        assertEquals(List.of("0", "1", "2", "3", "4", "5"), values(errorList));
+        assertEquals("convert", errorList.get(1)
+                .get(ERR_COL));
+        assertEquals("invalid", errorList.get(3)
+                .get(ERR_COL));
+    }
+
+    @Test
+    public void testRejected()
+    {
+        ExcelServiceImpl service = service(1, 0, 100);
+        assertTimeoutPreemptively(ofSeconds(5), () -> assertThrows(RejectedExecutionException.class,
+                () -> service.importExcel(input(), 0, new ArrayList<>(), Object.class, 0, (list, end) ->
+                {
+                })));
+        assertReaderStopped();
+    }
+
+    @Test
+    public void testTimeout()
+    {
+        ExcelServiceImpl service = service(1, 4, 100);
+        BaseException e = assertTimeoutPreemptively(ofSeconds(5), () -> assertThrows(BaseException.class,
+                () -> service.importExcel(input(), 0, new ArrayList<>(), Object.class, 0, (list, end) ->
+                {
+                })));
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertReaderStopped();
+    }
+
+    private ExcelServiceImpl service(int poolSize, int queueCapacity, int rows)
+    {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        ExcelServiceImpl service = new ExcelServiceImpl();
+        setField(service, "chunk", 2);
+        setField(service, "queue", 1);
+        setField(service, "timeout", 1L);
+        setField(service, "executor", executor);
+        setField(service, "tikaService", new CsvTikaService());
+        setField(service, "csvBatchService", csvBatchService(rows));
+        setField(service, "configLoader", new DefaultConfigLoader());
+        setField(service, "filterManagerFactory", new DefaultFilterManagerFactory());
+        setField(service, "entityDataMapConverter", new CopyConverter());
+        return service;
+    }
+
+    private CsvBatchService csvBatchService(int rows)
+    {
+        return (CsvBatchService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {CsvBatchService.class}, (proxy, method, args) -> IntStream.range(0, rows)
+                        .mapToObj(r -> (Map<Integer, String>) new HashMap<>(Map.of(0, String.valueOf(r))))
+                        .onClose(() -> closed.set(true)));
+    }
+
+    private ByteArrayInputStream input()
+    {
+        return new ByteArrayInputStream("0\n1\n".getBytes());
+    }
+
+    private static List<String> values(List<Map<Integer, String>> rows)
+    {
+        List<String> values = new ArrayList<>();
+        rows.forEach(row -> values.add(row.get(0)));
+        return values;
+    }
+
+    private void assertReaderStopped()
+    {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        pool.shutdown();
+        assertTimeoutPreemptively(ofSeconds(5), () -> assertTrue(pool.awaitTermination(3, SECONDS)));
+        assertTrue(closed.get());
+    }
+
+    private static class CsvTikaService extends TikaService
+    {
+
+        @Override
+        public String getMimeType(String name, InputStream stream)
+        {
+            return "text/csv";
+        }
+
+    }
+
+    private static class DefaultConfigLoader extends TableConfigLoader
+    {
+
+        @Override
+        public TableConfig load(Class<?> clazz)
+        {
+            return new TableConfig();
+        }
+
+    }
+
+    private class DefaultFilterManagerFactory extends FilterManagerFactory
+    {
+
+        @Override
+        public ValidateFilterManager build(TableConfig config)
+        {
+            FilterManagerImpl manager = new FilterManagerImpl();
+            manager.addRowFilters(ImmutableList.of(new InvalidRowFilter()));
+            return manager;
+        }
+
+    }
+
+    private class InvalidRowFilter extends AbstractValidateFilter<Map<Integer, String>> implements RowValidateFilter
+    {
+
+        @Override
+        public boolean validate(Map<Integer, String> dataMap, TableConfig config)
+        {
+            if (!dataMap.get(0)
+                    .equals(invalidValue))
+            {
+                return true;
+            }
+            setErrorMessage(dataMap, "invalid");
+            return false;
+        }
+
+    }
+
+    private class CopyConverter extends EntityDataMapConverter
+    {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Object> reverseConvertList(List<Map<Integer, String>> nList, Object[] objects)
+        {
+            if (failConvert)
+            {
+                throw new IllegalArgumentException();
+            }
+            Consumer<Map<Integer, String>> errorConsumer = (Consumer<Map<Integer, String>>) objects[2];
+            List<Object> list = new ArrayList<>();
+            for (Map<Integer, String> row : nList)
+            {
+                if (row.get(0)
+                        .equals(errorValue))
+                {
+                    row.put(ERR_COL, "convert");
+                    errorConsumer.accept(row);
+                }
+                else
+                {
+                    list.add(row);
+                }
+            }
+            return list;
+        }
+
+    }
+
+}
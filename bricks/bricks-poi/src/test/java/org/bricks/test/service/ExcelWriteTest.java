@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.service;
+
+import static org.apache.poi.ss.usermodel.CellType.NUMERIC;
+import static org.apache.poi.ss.usermodel.CellType.STRING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.bricks.module.enums.DataType;
+import org.bricks.poi.service.ExcelBatchServiceImpl;
+import org.junit.jupiter.api.Test;
+
+public class ExcelWriteTest
+{
+
+    @Test
+    public void testNumber() throws IOException
+    {
+        ExcelBatchServiceImpl service = new ExcelBatchServiceImpl();
+        setField(service, "window", 100);
+        List<String> values = List.of("0", "-0.5", "0.25", "120", "-3", "007", "00123", "-01", "00.5", "1.2.3",
+                "1234567890123456");
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        service.write(values.stream()
+                .map(value -> Map.of(0, value)), List.of("value"), List.of(DataType.DOUBLE), os);
+        try (XSSFWorkbook book = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray())))
+        {
+            for (int i = 0; i < values.size(); i++)
+            {
+                Row row = book.getSheetAt(0)
+                        .getRow(i + 1);
+                Cell cell = row.getCell(0);
+                // 有前导零、格式不对或超过15位的按文本写入
+                if (i < 5)
+                {
+                    assertEquals(NUMERIC, cell.getCellType());
+                    assertEquals(Double.parseDouble(values.get(i)), cell.getNumericCellValue());
+                }
+                else
+                {
+                    assertEquals(STRING, cell.getCellType());
+                    assertEquals(values.get(i), cell.getStringCellValue());
+                }
+            }
+        }
+    }
+
+}
@@ -16,8 +16,6 @@
 
 package org.bricks.module.bean;
 
-import static com.google.common.collect.Lists.newArrayList;
-
 import java.util.List;
 import java.util.Map;
 
@@ -40,9 +38,9 @@ public class BatchData extends AbstractBean
 {
 
     /**
-     * 数据列表
+     * 数据列表，默认列存储
      */
-    private List<Map<Integer, String>> dataMap = newArrayList();
+    private List<Map<Integer, String>> dataMap = new RowTable();
 
     /**
      * 数据行数
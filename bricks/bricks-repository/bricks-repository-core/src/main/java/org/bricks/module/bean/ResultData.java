@@ -19,6 +19,7 @@ package org.bricks.module.bean;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 
+import java.io.File;
 import java.util.List;
 import java.util.Map;
 
@@ -55,6 +56,16 @@ public class ResultData extends AbstractBean
      */
     private Integer successSize;
 
+    /**
+     * 错误报告文件，开启错误报告时代替error返回，由调用方负责删除
+     */
+    private File errorFile;
+
+    /**
+     * 错误行数
+     */
+    private Integer errorSize;
+
     /**
      * 错误信息
      *
@@ -67,6 +78,7 @@ public class ResultData extends AbstractBean
         {
             error.forEach(map -> errorList.add(map.get(-1)));
             this.error = error;
+            errorSize = error.size();
         }
     }
 
@@ -0,0 +1,493 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.module.bean;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.util.Objects.checkIndex;
+import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 列存储的行数据表，单元格按列保存在数组中，列内重复的值共用同一个字符串。
+ * 行以Map&lt;列号, 值&gt;视图访问，读写直接作用于表，可以替代List&lt;Map&lt;Integer, String&gt;&gt;使用。
+ * 负数列号(错误列)按行单独保存，不同行的错误列可以由多个线程同时写入，其余写操作非线程安全。
+ * 不存null值，put(null)等同于remove
+ *
+ * @author fuzy
+ *
+ */
+public class RowTable extends AbstractList<Map<Integer, String>> implements RandomAccess
+{
+
+    /**
+     * 每列字典最多收录的值数，超过后新值不再收录
+     */
+    private static final int DICTIONARY_LIMIT = 4096;
+
+    /**
+     * 列数据，下标为列号
+     */
+    private final List<Column> columns = newArrayList();
+
+    /**
+     * 负数列号的单元格，下标为行号，值为 Map&lt;列号, 值&gt;
+     */
+    private Map<Integer, String>[] extras;
+
+    /**
+     * 行数
+     */
+    private int size;
+
+    /**
+     * 行容量
+     */
+    private int capacity;
+
+    /**
+     * 默认构造
+     */
+    public RowTable()
+    {
+        this(16);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param capacity 初始行容量
+     */
+    @SuppressWarnings(UNCHECKED)
+    public RowTable(int capacity)
+    {
+        this.capacity = Math.max(capacity, 1);
+        extras = new Map[this.capacity];
+    }
+
+    @Override
+    public Map<Integer, String> get(int index)
+    {
+        checkIndex(index, size);
+        return new Row(index);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean add(Map<Integer, String> row)
+    {
+        int index = addRow();
+        if (row != null)
+        {
+            row.forEach((column, value) -> set(index, column, value));
+        }
+        return true;
+    }
+
+    @Override
+    public Map<Integer, String> set(int index, Map<Integer, String> row)
+    {
+        checkIndex(index, size);
+        Map<Integer, String> old = newLinkedHashMap(new Row(index));
+        clearRow(index);
+        if (row != null)
+        {
+            row.forEach((column, value) -> set(index, column, value));
+        }
+        return old;
+    }
+
+    @Override
+    public void clear()
+    {
+        columns.clear();
+        Arrays.fill(extras, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * 追加一个空行
+     *
+     * @return 行号
+     */
+    public int addRow()
+    {
+        ensureCapacity(size + 1);
+        modCount++;
+        return size++;
+    }
+
+    /**
+     * 单元格的值
+     *
+     * @param row 行号
+     * @param column 列号
+     * @return 值，不存在为null
+     */
+    public String get(int row, int column)
+    {
+        if (column < 0)
+        {
+            Map<Integer, String> extra = extras[row];
+            return extra != null ? extra.get(column) : null;
+        }
+        return column < columns.size() ? columns.get(column).cells[row] : null;
+    }
+
+    /**
+     * 设置单元格的值
+     *
+     * @param row 行号
+     * @param column 列号
+     * @param value 值，null为删除
+     * @return 原值
+     */
+    public String set(int row, int column, String value)
+    {
+        checkIndex(row, size);
+        if (column < 0)
+        {
+            return setExtra(row, column, value);
+        }
+        if (column >= columns.size())
+        {
+            if (value == null)
+            {
+                return null;
+            }
+            while (columns.size() <= column)
+            {
+                columns.add(new Column(capacity));
+            }
+        }
+        Column col = columns.get(column);
+        String old = col.cells[row];
+        col.cells[row] = col.encode(value);
+        return old;
+    }
+
+    /**
+     * @return 列数
+     */
+    public int width()
+    {
+        return columns.size();
+    }
+
+    /**
+     * 设置负数列号的单元格
+     *
+     * @param row 行号
+     * @param column 列号
+     * @param value 值，null为删除
+     * @return 原值
+     */
+    private String setExtra(int row, int column, String value)
+    {
+        Map<Integer, String> extra = extras[row];
+        if (value == null)
+        {
+            if (extra == null)
+            {
+                return null;
+            }
+            String old = extra.remove(column);
+            if (extra.isEmpty())
+            {
+                extras[row] = null;
+            }
+            return old;
+        }
+        if (extra == null)
+        {
+            extra = newLinkedHashMap();
+            extras[row] = extra;
+        }
+        return extra.put(column, value);
+    }
+
+    /**
+     * 清空一行
+     *
+     * @param row 行号
+     */
+    private void clearRow(int row)
+    {
+        columns.forEach(column -> column.cells[row] = null);
+        extras[row] = null;
+    }
+
+    /**
+     * 扩容，每列按1.5倍增长
+     *
+     * @param min 最小行容量
+     */
+    private void ensureCapacity(int min)
+    {
+        if (min > capacity)
+        {
+            capacity = Math.max(min, capacity + (capacity >> 1));
+            columns.forEach(column -> column.cells = Arrays.copyOf(column.cells, capacity));
+            extras = Arrays.copyOf(extras, capacity);
+        }
+    }
+
+    /**
+     * 一列数据
+     */
+    private static class Column
+    {
+
+        /**
+         * 单元格，下标为行号
+         */
+        private String[] cells;
+
+        /**
+         * 列内字典，重复的值返回同一个字符串
+         */
+        private final Map<String, String> dictionary = newHashMap();
+
+        /**
+         * 构造方法
+         *
+         * @param capacity 行容量
+         */
+        Column(int capacity)
+        {
+            cells = new String[capacity];
+        }
+
+        /**
+         * 字典编码
+         *
+         * @param value 值
+         * @return 字典中的同值字符串
+         */
+        String encode(String value)
+        {
+            if (value == null)
+            {
+                return null;
+            }
+            String code = dictionary.get(value);
+            if (code != null)
+            {
+                return code;
+            }
+            if (dictionary.size() < DICTIONARY_LIMIT)
+            {
+                dictionary.put(value, value);
+            }
+            return value;
+        }
+
+    }
+
+    /**
+     * 一行的Map视图，按列号顺序遍历，负数列号在最后
+     */
+    private class Row extends AbstractMap<Integer, String>
+    {
+
+        /**
+         * 行号
+         */
+        private final int row;
+
+        /**
+         * 构造方法
+         *
+         * @param row 行号
+         */
+        Row(int row)
+        {
+            this.row = row;
+        }
+
+        @Override
+        public String get(Object key)
+        {
+            return key instanceof Integer ? RowTable.this.get(row, (Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return get(key) != null;
+        }
+
+        @Override
+        public String put(Integer key, String value)
+        {
+            return set(row, key, value);
+        }
+
+        @Override
+        public String remove(Object key)
+        {
+            return key instanceof Integer ? set(row, (Integer) key, null) : null;
+        }
+
+        @Override
+        public void clear()
+        {
+            clearRow(row);
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super Integer, ? super String> action)
+        {
+            for (int i = 0; i < columns.size(); i++)
+            {
+                String value = columns.get(i).cells[row];
+                if (value != null)
+                {
+                    action.accept(i, value);
+                }
+            }
+            Map<Integer, String> extra = extras[row];
+            if (extra != null)
+            {
+                extra.forEach(action);
+            }
+        }
+
+        @Override
+        public Set<Entry<Integer, String>> entrySet()
+        {
+            return new AbstractSet<>()
+            {
+
+                @Override
+                public Iterator<Entry<Integer, String>> iterator()
+                {
+                    return new CellIterator(row, keys());
+                }
+
+                @Override
+                public int size()
+                {
+                    return keys().size();
+                }
+
+            };
+        }
+
+        /**
+         * @return 有值的列号
+         */
+        private List<Integer> keys()
+        {
+            List<Integer> keys = newArrayListWithCapacity(columns.size() + 1);
+            forEach((column, value) -> keys.add(column));
+            return keys;
+        }
+
+    }
+
+    /**
+     * 单元格遍历，删除和设置值作用于表
+     */
+    private class CellIterator implements Iterator<Map.Entry<Integer, String>>
+    {
+
+        /**
+         * 行号
+         */
+        private final int row;
+
+        /**
+         * 列号
+         */
+        private final Iterator<Integer> keys;
+
+        /**
+         * 上一个列号
+         */
+        private Integer last;
+
+        /**
+         * 构造方法
+         *
+         * @param row 行号
+         * @param keys 列号
+         */
+        CellIterator(int row, List<Integer> keys)
+        {
+            this.row = row;
+            this.keys = keys.iterator();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return keys.hasNext();
+        }
+
+        @Override
+        public Map.Entry<Integer, String> next()
+        {
+            last = keys.next();
+            Integer column = last;
+            return new AbstractMap.SimpleEntry<>(column, get(row, column))
+            {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public String setValue(String value)
+                {
+                    set(row, column, value);
+                    return super.setValue(value);
+                }
+
+            };
+        }
+
+        @Override
+        public void remove()
+        {
+            if (last == null)
+            {
+                throw new IllegalStateException();
+            }
+            set(row, last, null);
+            last = null;
+        }
+
+    }
+
+}
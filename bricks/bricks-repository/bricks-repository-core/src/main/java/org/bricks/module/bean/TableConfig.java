@@ -26,6 +26,7 @@ import java.util.Map;
 import org.bricks.bean.AbstractBean;
 import org.bricks.module.enums.DataType;
 import org.bricks.module.validate.filter.TableValidateFilter;
+import org.bricks.module.validate.plan.ValidatePlan;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -98,6 +99,11 @@ public class TableConfig extends AbstractBean
      */
     private boolean unique;
 
+    /**
+     * 校验计划
+     */
+    private ValidatePlan validatePlan;
+
     /**
      * 根据自选字段获取标题列表
      *
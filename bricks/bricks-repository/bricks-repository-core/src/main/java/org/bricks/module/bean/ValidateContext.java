@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.module.bean;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.bricks.bean.AbstractBean;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * 校验上下文，分块校验时在块之间传递表级状态
+ *
+ * @author fuzy
+ *
+ */
+@Setter
+@Getter
+@Accessors(chain = true)
+public class ValidateContext extends AbstractBean
+{
+
+    /**
+     * 当前块之前已校验的行数
+     */
+    private int offset;
+
+    /**
+     * 表级过滤器状态 Map&lt;过滤器, 状态&gt;
+     */
+    private final Map<Object, Object> stateMap = newHashMap();
+
+    /**
+     * 获取过滤器状态，不存在时创建
+     *
+     * @param <S> 状态类型
+     * @param key 过滤器
+     * @param supplier 状态创建
+     * @return 状态
+     */
+    @SuppressWarnings(UNCHECKED)
+    public <S> S getState(Object key, Supplier<S> supplier)
+    {
+        return (S) stateMap.computeIfAbsent(key, k -> supplier.get());
+    }
+
+}
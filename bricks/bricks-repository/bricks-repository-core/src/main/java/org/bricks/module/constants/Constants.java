@@ -80,6 +80,16 @@ public class Constants
          */
         public static final String EXCEL_ERR_UNIQUE = "error.excel.unique";
 
+        /**
+         * csv分隔符
+         */
+        public static final char CSV_DELIMITER = ',';
+
+        /**
+         * tsv分隔符
+         */
+        public static final char TSV_DELIMITER = '\t';
+
     }
 
     /**
@@ -16,33 +16,38 @@
 
 package org.bricks.module.converter;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Maps.newLinkedHashMap;
-import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
-import static org.bricks.module.constants.Constants.PoiConstants.ERR_COL;
-import static org.bricks.module.enums.DataType.STRING;
-import static org.bricks.utils.FunctionUtils.accept;
-import static org.bricks.utils.ObjectUtils.getEnumValue;
-import static org.bricks.utils.ObjectUtils.getFieldValue;
-import static org.bricks.utils.ObjectUtils.setFieldValue;
-import static org.bricks.utils.ReflectionUtils.getDeclaredField;
+import static java.util.Collections.emptyMap;
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
-import static org.apache.commons.lang3.StringUtils.isBlank;
+import static java.util.stream.Stream.of;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
+import static org.bricks.module.constants.Constants.PoiConstants.ERR_COL;
+import static org.bricks.module.converter.FieldAccessorFactory.getAccessor;
+import static org.bricks.module.enums.DataType.STRING;
 
+import java.lang.reflect.Constructor;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.springframework.stereotype.Component;
 
 import org.bricks.converter.AbstractParameterConverter;
+import org.bricks.enums.ValueEnum;
 import org.bricks.exception.BaseException;
 import org.bricks.module.bean.ColumnConfig;
+import org.bricks.module.bean.RowTable;
 import org.bricks.module.enums.DataType;
 
 /**
- * 对象转数据
+ * 对象转数据，字段访问器和列转换按列表解析一次，逐行只做取值赋值
  *
  * @author fuzy
  * 
@@ -51,118 +56,328 @@ import org.bricks.module.enums.DataType;
 public class EntityDataMapConverter extends AbstractParameterConverter<Object, Map<Integer, String>, Object[]>
 {
 
+    @Override
+    public List<Map<Integer, String>> convertList(List<Object> mList, Object[] objects)
+    {
+        if (mList == null || objects == null)
+        {
+            return super.convertList(mList, objects);
+        }
+        Map<Class<?>, List<ExportColumn>> columnsMap = newHashMap();
+        RowTable table = new RowTable(mList.size());
+        mList.stream()
+                .filter(Objects::nonNull)
+                .forEach(m -> write(table, m, columnsMap.computeIfAbsent(m.getClass(), c -> exportColumns(c, objects))));
+        return table;
+    }
+
     @Override
     @SuppressWarnings(UNCHECKED)
+    public List<Object> reverseConvertList(List<Map<Integer, String>> nList, Object[] objects)
+    {
+        if (objects == null)
+        {
+            return super.reverseConvertList(nList, objects);
+        }
+        Class<?> clazz = (Class<?>) objects[0];
+        Constructor<?> constructor = getConstructor(clazz);
+        List<ImportColumn> columns = importColumns(clazz, (Map<Integer, ColumnConfig>) objects[1]);
+        Consumer<Map<Integer, String>> errorConsumer = (Consumer<Map<Integer, String>>) objects[2];
+        return nList.stream()
+                .filter(Objects::nonNull)
+                .map(n -> read(n, constructor, columns, errorConsumer))
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    @Override
     protected Map<Integer, String> from(Object m, Object[] objects)
+    {
+        return write(m, exportColumns(m.getClass(), objects));
+    }
+
+    @Override
+    @SuppressWarnings(UNCHECKED)
+    protected Object reverseFrom(Map<Integer, String> m, Object[] objects)
+    {
+        Class<?> clazz = (Class<?>) objects[0];
+        return read(m, getConstructor(clazz), importColumns(clazz, (Map<Integer, ColumnConfig>) objects[1]),
+                (Consumer<Map<Integer, String>>) objects[2]);
+    }
+
+    /**
+     * 对象转一行数据
+     *
+     * @param m 对象
+     * @param columns 导出列
+     * @return 一行数据
+     */
+    private static Map<Integer, String> write(Object m, List<ExportColumn> columns)
     {
         Map<Integer, String> map = newLinkedHashMap();
         int i = 0;
-        List<String> fieldList = (List<String>) objects[0];
-        Map<Integer, ColumnConfig> columnMap = (Map<Integer, ColumnConfig>) objects[1];
-        Map<String, ColumnConfig> fieldMap = columnMap.values()
-                .stream()
-                .collect(toMap(ColumnConfig::getField, c -> c, (o, n) -> n));
-        for (String field : fieldList)
+        for (ExportColumn column : columns)
         {
-            Object value = getFieldValue(m, field);
-            ColumnConfig configParam = fieldMap.get(field);
-            String v = "";
-            if (value != null)
-            {
-                String format = ofNullable(configParam).map(ColumnConfig::getFormat)
-                        .orElse(null);
-                v = ofNullable(configParam).map(ColumnConfig::getDataType)
-                        .orElse(STRING)
-                        .format(value, format);
-            }
-            map.put(i++, v);
+            map.put(i++, column.format(m));
         }
         return map;
     }
 
-    @Override
-    @SuppressWarnings(UNCHECKED)
-    protected Object reverseFrom(Map<Integer, String> m, Object[] objects)
+    /**
+     * 对象写入列存储表的一行
+     *
+     * @param table 表
+     * @param m 对象
+     * @param columns 导出列
+     */
+    private static void write(RowTable table, Object m, List<ExportColumn> columns)
     {
-        Object t = null;
-        if (isBlank(m.get(ERR_COL)))
+        int row = table.addRow();
+        for (int i = 0; i < columns.size(); i++)
         {
-            try
-            {
-                t = ((Class<?>) objects[0]).newInstance();
-                Map<Integer, ColumnConfig> columnMap = (Map<Integer, ColumnConfig>) objects[1];
-                addEntry(m, t, columnMap);
-            }
-            catch (Exception e)
+            table.set(row, i, columns.get(i)
+                    .format(m));
+        }
+    }
+
+    /**
+     * 一行数据转对象，错误行交给错误行处理
+     *
+     * @param m 一行数据
+     * @param constructor 构造方法
+     * @param columns 导入列
+     * @param errorConsumer 错误行处理
+     * @return 对象，错误行或转换失败为null
+     */
+    private Object read(Map<Integer, String> m, Constructor<?> constructor, List<ImportColumn> columns,
+            Consumer<Map<Integer, String>> errorConsumer)
+    {
+        if (isNotBlank(m.get(ERR_COL)))
+        {
+            errorConsumer.accept(m);
+            return null;
+        }
+        try
+        {
+            Object t = constructor.newInstance();
+            for (ImportColumn column : columns)
             {
-                log.error(e.getMessage(), e);
-                return null;
+                column.bind(t, m.get(column.column));
             }
+            return t;
         }
-        else
+        catch (Exception e)
         {
-            List<Map<Integer, String>> errorList = (List<Map<Integer, String>>) objects[2];
-            errorList.add(m);
+            log.error(e.getMessage(), e);
+            return null;
         }
-        return t;
     }
 
     /**
-     * 向列表中增加对象
+     * 导出列
      *
-     * @param dataMap 一行数据
-     * @param obj 对象
-     * @param columnMap 行配置
+     * @param clazz 实体类
+     * @param objects [字段列表, 列配置]
+     * @return 导出列
      */
-    private void addEntry(Map<Integer, String> dataMap, Object obj, Map<Integer, ColumnConfig> columnMap)
+    @SuppressWarnings(UNCHECKED)
+    private static List<ExportColumn> exportColumns(Class<?> clazz, Object[] objects)
     {
-        dataMap.entrySet()
+        List<String> fieldList = (List<String>) objects[0];
+        Map<Integer, ColumnConfig> columnMap = objects.length > 1 && objects[1] != null
+                ? (Map<Integer, ColumnConfig>) objects[1]
+                : emptyMap();
+        Map<String, ColumnConfig> fieldMap = columnMap.values()
                 .stream()
-                .filter(entry -> entry.getKey() != ERR_COL && isNotBlank(entry.getValue()))
-                .forEach(accept(entry -> setEntryValues(obj, entry, columnMap), null, null, null,
-                        t -> t instanceof BaseException ? (BaseException) t : new BaseException(t)));
+                .collect(toMap(ColumnConfig::getField, c -> c, (o, n) -> n));
+        return fieldList.stream()
+                .map(field -> new ExportColumn(getAccessor(clazz, field), fieldMap.get(field)))
+                .collect(toList());
+    }
+
+    /**
+     * 导入列
+     *
+     * @param clazz 实体类
+     * @param columnMap 列配置
+     * @return 导入列
+     */
+    private List<ImportColumn> importColumns(Class<?> clazz, Map<Integer, ColumnConfig> columnMap)
+    {
+        List<ImportColumn> columns = newArrayList();
+        columnMap.forEach((column, config) ->
+        {
+            if (column != ERR_COL)
+            {
+                columns.add(new ImportColumn(clazz, column, config));
+            }
+        });
+        return columns;
     }
 
     /**
-     * 根据对应字段设置值
+     * 无参构造方法
      *
-     * @param obj 对象
-     * @param entry 字段值
-     * @param configMap 行配置
+     * @param clazz 实体类
+     * @return 构造方法
+     */
+    private static Constructor<?> getConstructor(Class<?> clazz)
+    {
+        try
+        {
+            return clazz.getDeclaredConstructor();
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new BaseException(e);
+        }
+    }
+
+    /**
+     * 导出列，取值和格式化预先解析
+     */
+    private static class ExportColumn
+    {
+
+        /**
+         * 字段访问器，实体类中没有该字段时为null
+         */
+        private final FieldAccessor accessor;
+
+        /**
+         * 数据类型
+         */
+        private final DataType dataType;
+
+        /**
+         * 格式
+         */
+        private final String format;
+
+        /**
+         * 构造方法
+         *
+         * @param accessor 字段访问器
+         * @param config 列配置
+         */
+        ExportColumn(FieldAccessor accessor, ColumnConfig config)
+        {
+            this.accessor = accessor;
+            dataType = ofNullable(config).map(ColumnConfig::getDataType)
+                    .orElse(STRING);
+            format = ofNullable(config).map(ColumnConfig::getFormat)
+                    .orElse(null);
+        }
+
+        /**
+         * 格式化字段值
+         *
+         * @param obj 对象
+         * @return 字符串，空值为""
+         */
+        String format(Object obj)
+        {
+            Object value = accessor != null ? accessor.get(obj) : null;
+            return value != null ? dataType.format(value, format) : "";
+        }
+
+    }
+
+    /**
+     * 导入列，赋值和类型转换预先解析
      */
-    private void setEntryValues(Object obj, Entry<Integer, String> entry, Map<Integer, ColumnConfig> configMap)
+    private class ImportColumn
     {
-        Integer key = entry.getKey();
-        ColumnConfig configParam = configMap.get(key);
-        if (configParam != null)
+
+        /**
+         * 列号
+         */
+        private final int column;
+
+        /**
+         * 字段名
+         */
+        private final String field;
+
+        /**
+         * 字段访问器，实体类中没有该字段时为null
+         */
+        private final FieldAccessor accessor;
+
+        /**
+         * 字符串转字段值
+         */
+        private final Function<String, Object> parser;
+
+        /**
+         * 构造方法
+         *
+         * @param clazz 实体类
+         * @param column 列号
+         * @param config 列配置
+         */
+        ImportColumn(Class<?> clazz, int column, ColumnConfig config)
         {
-            String strValue = entry.getValue();
-            String field = configParam.getField();
-            try
+            this.column = column;
+            field = config.getField();
+            accessor = getAccessor(clazz, field);
+            Class<?> type = accessor != null ? accessor.getType() : null;
+            if (type != null && type.isEnum())
             {
-                Class<?> clazz = getDeclaredField(obj.getClass(), field, true).getType();
-                Object value = clazz.isEnum() ? getEnumValue(clazz, strValue) : getValue(configParam, strValue);
-                setFieldValue(obj, field, value);
+                parser = enumParser(type);
             }
-            catch (Exception e)
+            else
             {
-                throw new BaseException(e);
+                DataType dataType = config.getDataType();
+                String format = config.getFormat();
+                parser = value -> dataType.parse(value, format);
             }
         }
+
+        /**
+         * 非空值转换后赋给对象，赋值失败只记日志
+         *
+         * @param obj 对象
+         * @param value 字符串值
+         */
+        void bind(Object obj, String value)
+        {
+            if (isNotBlank(value))
+            {
+                if (accessor == null)
+                {
+                    throw new BaseException(obj.getClass()
+                            .getName() + " has no field " + field);
+                }
+                Object v = parser.apply(value);
+                try
+                {
+                    accessor.set(obj, v);
+                }
+                catch (RuntimeException e)
+                {
+                    log.error(e.getMessage(), e);
+                }
+            }
+        }
+
     }
 
     /**
-     * 根据字段类型转换值
+     * 枚举转换，与ObjectUtils.getEnumValue的匹配规则一致
      *
-     * @param configParam 配置
-     * @param value 值
-     * @return 对象
+     * @param type 枚举类型
+     * @return 转换函数，匹配不到为null
      */
-    private static Object getValue(ColumnConfig configParam, String value)
+    private static Function<String, Object> enumParser(Class<?> type)
     {
-        DataType dataType = configParam.getDataType();
-        String format = configParam.getFormat();
-        return dataType.parse(value, format);
+        if (!ValueEnum.class.isAssignableFrom(type))
+        {
+            return value -> null;
+        }
+        Map<Object, Object> valueMap = newHashMap();
+        of(type.getEnumConstants()).forEach(v -> valueMap.putIfAbsent(((ValueEnum<?>) v).getValue(), v));
+        return valueMap::get;
     }
 
 }
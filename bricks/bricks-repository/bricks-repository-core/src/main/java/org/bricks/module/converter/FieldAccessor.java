@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.module.converter;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import lombok.Getter;
+
+/**
+ * 实体字段访问器，getter/setter在构造时解析为函数，取值赋值不再反射
+ *
+ * @author fuzy
+ *
+ */
+@Getter
+public class FieldAccessor
+{
+
+    /**
+     * 字段名
+     */
+    private final String name;
+
+    /**
+     * 字段类型
+     */
+    private final Class<?> type;
+
+    /**
+     * 取值函数
+     */
+    private final Function<Object, Object> getter;
+
+    /**
+     * 赋值函数
+     */
+    private final BiConsumer<Object, Object> setter;
+
+    /**
+     * 构造方法
+     *
+     * @param name 字段名
+     * @param type 字段类型
+     * @param getter 取值函数
+     * @param setter 赋值函数
+     */
+    public FieldAccessor(String name, Class<?> type, Function<Object, Object> getter,
+            BiConsumer<Object, Object> setter)
+    {
+        this.name = name;
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * 取值
+     *
+     * @param obj 对象
+     * @return 字段值
+     */
+    public Object get(Object obj)
+    {
+        return getter.apply(obj);
+    }
+
+    /**
+     * 赋值，基本类型字段忽略null
+     *
+     * @param obj 对象
+     * @param value 字段值
+     */
+    public void set(Object obj, Object value)
+    {
+        if (value != null || !type.isPrimitive())
+        {
+            setter.accept(obj, value);
+        }
+    }
+
+}
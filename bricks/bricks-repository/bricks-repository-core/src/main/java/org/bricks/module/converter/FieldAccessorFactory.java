@@ -0,0 +1,303 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.module.converter;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.primitives.Primitives.wrap;
+import static java.lang.invoke.LambdaMetafactory.metafactory;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodHandles.privateLookupIn;
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isPublic;
+import static java.lang.reflect.Modifier.isStatic;
+import static java.util.Collections.unmodifiableMap;
+import static org.apache.commons.lang3.StringUtils.capitalize;
+import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
+import static org.bricks.utils.ReflectionUtils.addDeclaredFields;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.bricks.exception.BaseException;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 字段访问器工厂，按实体类缓存，每个类只解析一次。
+ * 有同类型的public getter/setter时用LambdaMetafactory生成函数，否则用字段MethodHandle，都不可用时退回反射
+ *
+ * @author fuzy
+ *
+ */
+@Slf4j
+@UtilityClass
+public class FieldAccessorFactory
+{
+
+    /**
+     * 访问器缓存 Map&lt;字段名, 访问器&gt;，子类字段优先
+     */
+    private static final ClassValue<Map<String, FieldAccessor>> ACCESSORS = new ClassValue<>()
+    {
+
+        @Override
+        protected Map<String, FieldAccessor> computeValue(Class<?> type)
+        {
+            List<Field> fieldList = newArrayList();
+            addDeclaredFields(type, fieldList, true, false);
+            Map<String, FieldAccessor> accessorMap = newHashMap();
+            fieldList.forEach(field -> accessorMap.computeIfAbsent(field.getName(), name -> create(type, field)));
+            return unmodifiableMap(accessorMap);
+        }
+
+    };
+
+    /**
+     * 实体类的全部字段访问器
+     *
+     * @param clazz 实体类
+     * @return Map&lt;字段名, 访问器&gt;
+     */
+    public static Map<String, FieldAccessor> getAccessors(Class<?> clazz)
+    {
+        return ACCESSORS.get(clazz);
+    }
+
+    /**
+     * 字段访问器
+     *
+     * @param clazz 实体类
+     * @param field 字段名
+     * @return 访问器，没有该字段时为null
+     */
+    public static FieldAccessor getAccessor(Class<?> clazz, String field)
+    {
+        return ACCESSORS.get(clazz)
+                .get(field);
+    }
+
+    /**
+     * 创建访问器
+     *
+     * @param clazz 实体类
+     * @param field 字段
+     * @return 访问器
+     */
+    private static FieldAccessor create(Class<?> clazz, Field field)
+    {
+        Function<Object, Object> getter = null;
+        BiConsumer<Object, Object> setter = null;
+        try
+        {
+            getter = lambdaGetter(clazz, field);
+            setter = lambdaSetter(clazz, field);
+        }
+        catch (Throwable e)
+        {
+            log.debug("{}.{} lambda accessor unavailable: {}", clazz.getName(), field.getName(), e.getMessage());
+        }
+        try
+        {
+            if (getter == null || setter == null)
+            {
+                Lookup fieldLookup = privateLookupIn(field.getDeclaringClass(), lookup());
+                getter = getter != null ? getter : handleGetter(fieldLookup.unreflectGetter(field));
+                setter = setter != null ? setter : handleSetter(fieldLookup.unreflectSetter(field));
+            }
+        }
+        catch (IllegalAccessException e)
+        {
+            log.debug("{}.{} method handle unavailable: {}", clazz.getName(), field.getName(), e.getMessage());
+            field.setAccessible(true);
+            getter = getter != null ? getter : reflectGetter(field);
+            setter = setter != null ? setter : reflectSetter(field);
+        }
+        return new FieldAccessor(field.getName(), field.getType(), getter, setter);
+    }
+
+    /**
+     * public getter生成的取值函数
+     *
+     * @param clazz 实体类
+     * @param field 字段
+     * @return 取值函数，没有同类型getter时为null
+     * @throws Throwable 生成异常
+     */
+    @SuppressWarnings(UNCHECKED)
+    private static Function<Object, Object> lambdaGetter(Class<?> clazz, Field field) throws Throwable
+    {
+        Class<?> type = field.getType();
+        String name = capitalize(field.getName());
+        Method method = findMethod(clazz, "get" + name);
+        if (method == null && type == boolean.class)
+        {
+            method = findMethod(clazz, "is" + name);
+        }
+        if (method == null || method.getReturnType() != type)
+        {
+            return null;
+        }
+        Lookup methodLookup = privateLookupIn(method.getDeclaringClass(), lookup());
+        MethodHandle handle = methodLookup.unreflect(method);
+        return (Function<Object, Object>) metafactory(methodLookup, "apply", methodType(Function.class),
+                methodType(Object.class, Object.class), handle, methodType(wrap(type), method.getDeclaringClass()))
+                        .getTarget()
+                        .invoke();
+    }
+
+    /**
+     * public setter生成的赋值函数，链式setter的返回值忽略
+     *
+     * @param clazz 实体类
+     * @param field 字段
+     * @return 赋值函数，没有同类型setter时为null
+     * @throws Throwable 生成异常
+     */
+    @SuppressWarnings(UNCHECKED)
+    private static BiConsumer<Object, Object> lambdaSetter(Class<?> clazz, Field field) throws Throwable
+    {
+        Class<?> type = field.getType();
+        Method method = findMethod(clazz, "set" + capitalize(field.getName()), type);
+        if (method == null)
+        {
+            return null;
+        }
+        Lookup methodLookup = privateLookupIn(method.getDeclaringClass(), lookup());
+        MethodHandle handle = methodLookup.unreflect(method);
+        return (BiConsumer<Object, Object>) metafactory(methodLookup, "accept", methodType(BiConsumer.class),
+                methodType(void.class, Object.class, Object.class), handle,
+                methodType(void.class, method.getDeclaringClass(), wrap(type))).getTarget()
+                        .invoke();
+    }
+
+    /**
+     * public实例方法
+     *
+     * @param clazz 类
+     * @param name 方法名
+     * @param parameterTypes 参数类型
+     * @return 方法，没有时为null
+     */
+    private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes)
+    {
+        try
+        {
+            Method method = clazz.getMethod(name, parameterTypes);
+            return isStatic(method.getModifiers()) || !isPublic(method.getDeclaringClass()
+                    .getModifiers()) ? null : method;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * 字段MethodHandle取值
+     *
+     * @param handle 字段句柄
+     * @return 取值函数
+     */
+    private static Function<Object, Object> handleGetter(MethodHandle handle)
+    {
+        MethodHandle getter = handle.asType(methodType(Object.class, Object.class));
+        return obj ->
+        {
+            try
+            {
+                return getter.invokeExact(obj);
+            }
+            catch (Throwable e)
+            {
+                throw new BaseException(e);
+            }
+        };
+    }
+
+    /**
+     * 字段MethodHandle赋值
+     *
+     * @param handle 字段句柄
+     * @return 赋值函数
+     */
+    private static BiConsumer<Object, Object> handleSetter(MethodHandle handle)
+    {
+        MethodHandle setter = handle.asType(methodType(void.class, Object.class, Object.class));
+        return (obj, value) ->
+        {
+            try
+            {
+                setter.invokeExact(obj, value);
+            }
+            catch (Throwable e)
+            {
+                throw new BaseException(e);
+            }
+        };
+    }
+
+    /**
+     * 反射取值
+     *
+     * @param field 字段
+     * @return 取值函数
+     */
+    private static Function<Object, Object> reflectGetter(Field field)
+    {
+        return obj ->
+        {
+            try
+            {
+                return field.get(obj);
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new BaseException(e);
+            }
+        };
+    }
+
+    /**
+     * 反射赋值
+     *
+     * @param field 字段
+     * @return 赋值函数
+     */
+    private static BiConsumer<Object, Object> reflectSetter(Field field)
+    {
+        return (obj, value) ->
+        {
+            try
+            {
+                field.set(obj, value);
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new BaseException(e);
+            }
+        };
+    }
+
+}
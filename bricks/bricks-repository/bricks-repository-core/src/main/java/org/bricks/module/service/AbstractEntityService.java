@@ -3,7 +3,13 @@ package org.bricks.module.service;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.bricks.constants.Constants.GenericConstants.UNCHECKED;
 import static org.bricks.utils.ContextHolder.getBean;
+import static org.bricks.utils.MD5Utils.getMD5String;
 import static org.bricks.utils.ReflectionUtils.getComponentClassList;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Optional.ofNullable;
@@ -11,12 +17,18 @@ import static java.util.stream.Collectors.toList;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.collections4.MapUtils.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
+import static org.springframework.transaction.interceptor.TransactionAspectSupport.currentTransactionStatus;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -24,8 +36,11 @@ import javax.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Order;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -70,6 +85,36 @@ public abstract class AbstractEntityService<I, T> extends AbstractInitFinishedLi
     @Autowired(required = false)
     protected ExcelService excelService;
 
+    /**
+     * 断点续传导入，按块提交，同一文件重新上传时从断点继续。已提交的块不回滚，修正后的文件视为新的导入任务
+     */
+    @Value("${bricks.poi.checkpoint:false}")
+    protected boolean checkpoint;
+
+    /**
+     * 分页查询导出的分页大小
+     */
+    @Value("${bricks.poi.exportPageSize:1000}")
+    protected int exportPageSize;
+
+    /**
+     * 错误行写入错误报告文件，不在内存中保留
+     */
+    @Value("${bricks.poi.errorReport:false}")
+    protected boolean errorReport;
+
+    /**
+     * 导入断点存储
+     */
+    @Autowired(required = false)
+    protected ImportCheckpointStore checkpointStore;
+
+    /**
+     * 表配置
+     */
+    @Resource
+    protected TableConfigLoader configLoader;
+
     /**
      * 实体转map
      */
@@ -177,6 +222,31 @@ public abstract class AbstractEntityService<I, T> extends AbstractInitFinishedLi
         }
     }
 
+    @Override
+    public void exportQuery(Map<String, Object> condition, List<String> fieldList, OutputStream outputStream,
+            Order... orders)
+    {
+        exportQuery(condition, fieldList, (char) 0, outputStream, orders);
+    }
+
+    @Override
+    public void exportQuery(Map<String, Object> condition, List<String> fieldList, char delimiter,
+            OutputStream outputStream, Order... orders)
+    {
+        List<String> fields = ofNullable(fieldList).orElse(emptyList());
+        try
+        {
+            // 预取在异步线程中执行，经代理查询以开启各自的只读事务
+            excelService.export(PageRequest.of(0, exportPageSize, Sort.by(orders)),
+                    pageable -> selfService.findPage(condition, false, fields, pageable), outputStream,
+                    isNotEmpty(fields) ? fields.toArray(new String[0]) : null, entityClass, delimiter);
+        }
+        catch (Throwable e)
+        {
+            log.error(e.getMessage(), e);
+        }
+    }
+
     @Override
     public List<T> findAll(Map<String, Object> condition, boolean clear, List<String> fieldList, Order... orders)
     {
@@ -248,24 +318,33 @@ public abstract class AbstractEntityService<I, T> extends AbstractInitFinishedLi
     @Transactional(rollbackFor = Exception.class)
     public ResultData importFile(InputStream inputStream)
     {
+        if (checkpoint && checkpointStore != null)
+        {
+            return importCheckpoint(inputStream);
+        }
         ResultData data = new ResultData();
         List<Map<Integer, String>> errorList = newArrayList();
-        List<T> excelList = excelService.importExcel(inputStream, 0, errorList, entityClass);
-        excelList = beforeImport(excelList);
-        if (isNotEmpty(excelList))
+        ErrorReport report = newErrorReport();
+        Consumer<Map<Integer, String>> errorConsumer = errorConsumer(errorList, report);
+        AtomicInteger successSize = new AtomicInteger();
+        try
         {
-            List<T> list = excelList.stream()
-                    .filter(this::beforeImport)
-                    .collect(toList());
-            list = saveBatch(list);
-            afterImport(list);
-            data.setSuccessSize(list.size());
+            boolean rtn = excelService.importExcel(inputStream, 0, errorConsumer, entityClass, 0,
+                    (excelList, end) -> successSize.addAndGet(importList(excelList)));
+            if (!rtn && successSize.get() > 0)
+            {
+                // 分块导入时之前的块已保存，整体回滚
+                currentTransactionStatus().setRollbackOnly();
+                successSize.set(0);
+            }
         }
-        else
+        catch (RuntimeException e)
         {
-            data.setSuccessSize(0);
+            discardError(report);
+            throw e;
         }
-        data.setError(errorList);
+        data.setSuccessSize(successSize.get());
+        setError(data, errorList, report);
         return data;
     }
 
@@ -332,6 +411,211 @@ public abstract class AbstractEntityService<I, T> extends AbstractInitFinishedLi
         //
     }
 
+    /**
+     * 保存一块导入的实体列表，独立事务提交
+     *
+     * @param excelList 实体列表
+     * @return 保存条数
+     */
+    @Transactional(propagation = REQUIRES_NEW, rollbackFor = Exception.class)
+    public int importChunk(List<T> excelList)
+    {
+        return importList(excelList);
+    }
+
+    /**
+     * 断点续传导入，文件落盘后以实体名、页码、开始行号和文件md5作为导入任务，每块独立提交后记录断点，
+     * 同一文件再次导入时跳过已提交的行，全部完成后删除断点。
+     * 导入任务按文件内容识别：开启事务时校验失败前已提交的块不会回滚，修正后的文件md5不同，
+     * 重新导入会从头开始并重复已提交的行，不支持这种用法，应只导入错误行或先清理已导入的数据
+     *
+     * @param inputStream 输入流
+     * @return 导入结果
+     */
+    protected ResultData importCheckpoint(InputStream inputStream)
+    {
+        ResultData data = new ResultData();
+        List<Map<Integer, String>> errorList = newArrayList();
+        ErrorReport report = newErrorReport();
+        Consumer<Map<Integer, String>> errorConsumer = errorConsumer(errorList, report);
+        AtomicInteger successSize = new AtomicInteger();
+        Path temp = null;
+        try
+        {
+            temp = createTempFile("bricks-import-", null);
+            copy(inputStream, temp, REPLACE_EXISTING);
+            int sheetNum = 0;
+            String key = entityName + "-" + sheetNum + "-" + configLoader.load(entityClass)
+                    .getStartRow() + "-" + getMD5String(temp.toFile(), false);
+            int skip = checkpointStore.get(key);
+            if (skip > 0)
+            {
+                log.info("resume import {} from row {}", key, skip);
+            }
+            boolean rtn;
+            try (InputStream is = newInputStream(temp))
+            {
+                rtn = excelService.importExcel(is, sheetNum, errorConsumer, entityClass, skip, (excelList, end) ->
+                {
+                    if (isNotEmpty(excelList))
+                    {
+                        successSize.addAndGet(selfService.importChunk(excelList));
+                    }
+                    checkpointStore.save(key, end);
+                });
+            }
+            if (rtn)
+            {
+                checkpointStore.remove(key);
+            }
+            else if (successSize.get() > 0)
+            {
+                log.warn("import {} failed validation after {} rows committed, do not re-import a corrected file",
+                        key, successSize.get());
+            }
+        }
+        catch (IOException e)
+        {
+            discardError(report);
+            throw new BaseException(e);
+        }
+        catch (RuntimeException e)
+        {
+            discardError(report);
+            throw e;
+        }
+        finally
+        {
+            deleteTemp(temp);
+        }
+        data.setSuccessSize(successSize.get());
+        setError(data, errorList, report);
+        return data;
+    }
+
+    /**
+     * 创建错误报告
+     *
+     * @return 未开启错误报告时为null
+     */
+    protected ErrorReport newErrorReport()
+    {
+        return errorReport ? excelService.createErrorReport(entityClass, (char) 0) : null;
+    }
+
+    /**
+     * 错误行处理，开启错误报告时写入报告文件，否则加入错误列表
+     *
+     * @param errorList 错误列表
+     * @param report 错误报告
+     * @return 错误行处理
+     */
+    private static Consumer<Map<Integer, String>> errorConsumer(List<Map<Integer, String>> errorList,
+            ErrorReport report)
+    {
+        return report != null ? report : errorList::add;
+    }
+
+    /**
+     * 设置导入结果的错误信息，错误报告关闭后返回文件，没有错误行时删除文件
+     *
+     * @param data 导入结果
+     * @param errorList 错误列表
+     * @param report 错误报告
+     */
+    protected void setError(ResultData data, List<Map<Integer, String>> errorList, ErrorReport report)
+    {
+        if (report != null)
+        {
+            try
+            {
+                report.close();
+            }
+            catch (IOException e)
+            {
+                discardError(report);
+                throw new BaseException(e);
+            }
+            if (report.size() == 0)
+            {
+                deleteTemp(report.getFile()
+                        .toPath());
+            }
+            else
+            {
+                data.setErrorFile(report.getFile())
+                        .setErrorSize(report.size());
+            }
+        }
+        else
+        {
+            data.setError(errorList);
+        }
+    }
+
+    /**
+     * 导入异常时关闭并删除错误报告
+     *
+     * @param report 错误报告
+     */
+    private void discardError(ErrorReport report)
+    {
+        if (report != null)
+        {
+            try
+            {
+                report.close();
+            }
+            catch (IOException e)
+            {
+                log.warn(e.getMessage(), e);
+            }
+            deleteTemp(report.getFile()
+                    .toPath());
+        }
+    }
+
+    /**
+     * 删除临时文件
+     *
+     * @param temp 临时文件
+     */
+    private void deleteTemp(Path temp)
+    {
+        if (temp != null)
+        {
+            try
+            {
+                deleteIfExists(temp);
+            }
+            catch (IOException e)
+            {
+                log.warn("delete {} failed: {}", temp, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 保存导入的实体列表，分块导入时每块调用一次
+     *
+     * @param excelList 实体列表
+     * @return 保存条数
+     */
+    protected int importList(List<T> excelList)
+    {
+        List<T> list = beforeImport(excelList);
+        if (isNotEmpty(list))
+        {
+            list = list.stream()
+                    .filter(this::beforeImport)
+                    .collect(toList());
+            list = saveBatch(list);
+            afterImport(list);
+            return list.size();
+        }
+        return 0;
+    }
+
     /**
      * 导入后处理
      *
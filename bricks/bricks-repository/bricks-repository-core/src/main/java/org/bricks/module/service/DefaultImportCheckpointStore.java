@@ -0,0 +1,122 @@
+package org.bricks.module.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 默认导入断点存储，保存在内存中，配置了目录时同时写入文件，重启后仍可续传
+ *
+ * @author fuzy
+ *
+ */
+@Slf4j
+@Service
+public class DefaultImportCheckpointStore implements ImportCheckpointStore
+{
+
+    /**
+     * 断点 Map&lt;导入任务, 已提交的数据行数&gt;
+     */
+    private final Map<String, Integer> checkpointMap = new ConcurrentHashMap<>();
+
+    /**
+     * 断点文件目录，为空时只保存在内存中
+     */
+    @Value("${bricks.poi.checkpointDir:}")
+    private String checkpointDir;
+
+    @Override
+    public int get(String key)
+    {
+        Integer row = checkpointMap.get(key);
+        return row != null ? row : load(key);
+    }
+
+    @Override
+    public void save(String key, int row)
+    {
+        checkpointMap.put(key, row);
+        Path path = getPath(key);
+        if (path != null)
+        {
+            try
+            {
+                createDirectories(path.getParent());
+                writeString(path, String.valueOf(row), UTF_8);
+            }
+            catch (IOException e)
+            {
+                log.warn("save checkpoint {} failed: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void remove(String key)
+    {
+        checkpointMap.remove(key);
+        Path path = getPath(key);
+        if (path != null)
+        {
+            try
+            {
+                deleteIfExists(path);
+            }
+            catch (IOException e)
+            {
+                log.warn("remove checkpoint {} failed: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 从文件读取断点
+     *
+     * @param key 导入任务
+     * @return 已提交的数据行数
+     */
+    private int load(String key)
+    {
+        Path path = getPath(key);
+        if (path != null && exists(path))
+        {
+            try
+            {
+                return Integer.parseInt(readString(path, UTF_8).trim());
+            }
+            catch (IOException | NumberFormatException e)
+            {
+                log.warn("load checkpoint {} failed: {}", path, e.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 断点文件
+     *
+     * @param key 导入任务
+     * @return 文件路径，未配置目录时为null
+     */
+    private Path getPath(String key)
+    {
+        return isBlank(checkpointDir) ? null : Paths.get(checkpointDir, key + ".checkpoint");
+    }
+
+}
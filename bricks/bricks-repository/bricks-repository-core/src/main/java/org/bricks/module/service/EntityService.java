@@ -87,6 +87,29 @@ public interface EntityService<I, T>
      */
     void exportData(List<List<Map<Integer, String>>> list, OutputStream outputStream, List<String[]> fields);
 
+    /**
+     * 按条件分页查询并流式导出xlsx，内存占用与分页大小相关，与结果总数无关
+     *
+     * @param condition 条件
+     * @param fieldList 导出的字段列表，空为全部
+     * @param outputStream 输出流
+     * @param orders 排序字段，分页需要稳定的顺序
+     */
+    void exportQuery(Map<String, Object> condition, List<String> fieldList, OutputStream outputStream,
+            Order... orders);
+
+    /**
+     * 按条件分页查询并流式导出
+     *
+     * @param condition 条件
+     * @param fieldList 导出的字段列表，空为全部
+     * @param delimiter csv/tsv分隔符，0为xlsx
+     * @param outputStream 输出流
+     * @param orders 排序字段，分页需要稳定的顺序
+     */
+    void exportQuery(Map<String, Object> condition, List<String> fieldList, char delimiter,
+            OutputStream outputStream, Order... orders);
+
     /**
      * 根据条件查询
      *
@@ -0,0 +1,35 @@
+package org.bricks.module.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 错误报告，作为错误行的处理传入导入接口，错误行直接写入报告文件，不在内存中保留，关闭后报告文件完整
+ *
+ * @author fuzy
+ *
+ */
+public interface ErrorReport extends Consumer<Map<Integer, String>>, Closeable
+{
+
+    /**
+     * 写入一行错误数据
+     *
+     * @param dataMap 错误行
+     */
+    @Override
+    void accept(Map<Integer, String> dataMap);
+
+    /**
+     * @return 已写入的行数
+     */
+    int size();
+
+    /**
+     * @return 报告文件，由调用方负责删除
+     */
+    File getFile();
+
+}
@@ -4,6 +4,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 /**
  * Excel导入导出接口
@@ -26,6 +32,51 @@ public interface ExcelService
      */
     <T> List<T> importExcel(InputStream is, int sheetNum, List<Map<Integer, String>> errorList, Class<T> clazz);
 
+    /**
+     * 从流导入excel，开启分块时按块读取、校验、转换后交给consumer，否则整表一次交给consumer
+     *
+     * @param <T> 导入类型
+     * @param is 输入流
+     * @param sheetNum 页码
+     * @param errorList 错误列表
+     * @param clazz 导入类型
+     * @param consumer 实体列表处理
+     * @return 开启事务且校验失败时返回false，已交给consumer的数据需要回滚
+     */
+    <T> boolean importExcel(InputStream is, int sheetNum, List<Map<Integer, String>> errorList, Class<T> clazz,
+            Consumer<List<T>> consumer);
+
+    /**
+     * 从流导入excel，跳过已处理的行，断点续传时使用。
+     * 全部行仍参与校验(唯一性需要)，只有skip之后的行转换后交给consumer，同时给出本块结束时已处理的行数
+     *
+     * @param <T> 导入类型
+     * @param is 输入流
+     * @param sheetNum 页码
+     * @param errorList 错误列表
+     * @param clazz 导入类型
+     * @param skip 跳过的数据行数
+     * @param consumer 实体列表和已处理行数的处理
+     * @return 开启事务且校验失败时返回false
+     */
+    <T> boolean importExcel(InputStream is, int sheetNum, List<Map<Integer, String>> errorList, Class<T> clazz,
+            int skip, ObjIntConsumer<List<T>> consumer);
+
+    /**
+     * 从流导入excel，错误行逐行交给errorConsumer(如错误报告)而不放入错误列表，其余同上
+     *
+     * @param <T> 导入类型
+     * @param is 输入流
+     * @param sheetNum 页码
+     * @param errorConsumer 错误行处理
+     * @param clazz 导入类型
+     * @param skip 跳过的数据行数
+     * @param consumer 实体列表和已处理行数的处理
+     * @return 开启事务且校验失败时返回false
+     */
+    <T> boolean importExcel(InputStream is, int sheetNum, Consumer<Map<Integer, String>> errorConsumer,
+            Class<T> clazz, int skip, ObjIntConsumer<List<T>> consumer);
+
     /**
      * 导出excel
      *
@@ -46,4 +97,26 @@ public interface ExcelService
      */
     void exportData(List<List<Map<Integer, String>>> list, OutputStream os, List<String[]> fields, Class<?> clazz);
 
+    /**
+     * 分页查询流式导出到一个sheet，写当前页时异步预取下一页，内存只保留两页数据
+     *
+     * @param pageable 第一页
+     * @param pageLoader 分页查询，可能在异步线程中调用
+     * @param os 输出流
+     * @param fields 导出的字段，null为全部
+     * @param clazz 导出类型
+     * @param delimiter csv/tsv分隔符，0为xlsx
+     */
+    void export(Pageable pageable, Function<Pageable, ? extends Page<?>> pageLoader, OutputStream os, String[] fields,
+            Class<?> clazz, char delimiter);
+
+    /**
+     * 创建错误报告，标题为导入模板的全部列，错误行追加错误信息列并标红
+     *
+     * @param clazz 导入类型
+     * @param delimiter csv/tsv分隔符，0为xlsx
+     * @return 错误报告
+     */
+    ErrorReport createErrorReport(Class<?> clazz, char delimiter);
+
 }
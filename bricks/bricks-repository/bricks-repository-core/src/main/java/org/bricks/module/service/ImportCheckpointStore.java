@@ -0,0 +1,35 @@
+package org.bricks.module.service;
+
+/**
+ * 导入断点存储，记录每个导入任务已提交的数据行数
+ *
+ * @author fuzy
+ *
+ */
+public interface ImportCheckpointStore
+{
+
+    /**
+     * 获取断点
+     *
+     * @param key 导入任务
+     * @return 已提交的数据行数，没有断点时为0
+     */
+    int get(String key);
+
+    /**
+     * 保存断点
+     *
+     * @param key 导入任务
+     * @param row 已提交的数据行数
+     */
+    void save(String key, int row);
+
+    /**
+     * 导入完成后删除断点
+     *
+     * @param key 导入任务
+     */
+    void remove(String key);
+
+}
@@ -1,8 +1,8 @@
 package org.bricks.module.service;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Maps.newLinkedHashMap;
+import static org.bricks.utils.ContextHolder.getContext;
 import static org.bricks.utils.ReflectionUtils.addDeclaredFields;
 import static org.bricks.utils.ReflectionUtils.addDeclaredMethods;
 import static org.bricks.utils.RegexUtils.matches;
@@ -10,6 +10,7 @@ import static org.bricks.utils.RegexUtils.regularGroup;
 import static org.bricks.utils.StringUtils.firstToLowercase;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.of;
@@ -23,6 +24,9 @@ import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
@@ -30,31 +34,57 @@ import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
 
 import org.bricks.exception.BaseException;
+import org.bricks.listener.AbstractInitFinishedListener;
 import org.bricks.module.annotation.Excel;
 import org.bricks.module.annotation.ExcelColumn;
 import org.bricks.module.annotation.Unique;
 import org.bricks.module.bean.ColumnConfig;
 import org.bricks.module.bean.TableConfig;
 import org.bricks.module.enums.DataType;
+import org.bricks.module.validate.plan.ValidatePlan;
 import org.bricks.pattern.PatternService;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
- * 加载表配置
+ * 加载表配置，按类缓存，启动完成后异步预加载实体服务和扫描包中的表配置
  *
  * @author fuzy
  *
  */
+@Slf4j
 @Service
-public class TableConfigLoader
+public class TableConfigLoader extends AbstractInitFinishedListener
 {
 
     /**
-     * 缓存
+     * 缓存，没有表配置的类缓存为空
+     */
+    private final ClassValue<Optional<TableConfig>> cache = new ClassValue<>()
+    {
+
+        @Override
+        protected Optional<TableConfig> computeValue(Class<?> type)
+        {
+            return ofNullable(build(type));
+        }
+
+    };
+
+    /**
+     * 预加载扫描的包，多个用逗号分隔
      */
-    private static final Map<String, TableConfig> CACHE = newHashMap();
+    @Value("${bricks.poi.scanPackages:}")
+    private String[] scanPackages;
 
     /**
      * getter setter正则
@@ -84,10 +114,81 @@ public class TableConfigLoader
      */
     public TableConfig load(Class<?> clazz)
     {
-        if (CACHE.containsKey(clazz.getName()))
+        return cache.get(clazz)
+                .orElse(null);
+    }
+
+    /**
+     * 预加载表配置，单个类加载失败只记录日志
+     *
+     * @param classes 类
+     */
+    public void preload(Set<Class<?>> classes)
+    {
+        long start = System.currentTimeMillis();
+        long count = classes.stream()
+                .filter(clazz ->
+                {
+                    try
+                    {
+                        return load(clazz) != null;
+                    }
+                    catch (RuntimeException e)
+                    {
+                        log.warn("preload table config {} failed: {}", clazz.getName(), e.getMessage());
+                        return false;
+                    }
+                })
+                .count();
+        log.info("preload {} table configs in {}ms", count, System.currentTimeMillis() - start);
+    }
+
+    @Override
+    protected void doAsyncInitFinished()
+    {
+        Set<Class<?>> classes = getContext().getBeansOfType(EntityService.class)
+                .values()
+                .stream()
+                .<Class<?>> map(EntityService::getEntityClass)
+                .filter(Objects::nonNull)
+                .collect(toSet());
+        if (ArrayUtils.isNotEmpty(scanPackages))
         {
-            return CACHE.get(clazz.getName());
+            classes.addAll(scan(scanPackages));
         }
+        preload(classes);
+    }
+
+    /**
+     * 扫描带@Excel注解或getter/setter带@ExcelColumn注解的类，字段注解需在类上加@Excel才能扫到
+     *
+     * @param packages 包
+     * @return 类
+     */
+    private Set<Class<?>> scan(String... packages)
+    {
+        ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(
+                false, environment);
+        provider.addIncludeFilter(new AnnotationTypeFilter(Excel.class));
+        provider.addIncludeFilter((reader, factory) -> reader.getAnnotationMetadata()
+                .hasAnnotatedMethods(ExcelColumn.class.getName()));
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        return of(packages).filter(StringUtils::isNotBlank)
+                .flatMap(p -> provider.findCandidateComponents(p)
+                        .stream())
+                .map(BeanDefinition::getBeanClassName)
+                .map(name -> ClassUtils.resolveClassName(name, classLoader))
+                .collect(toSet());
+    }
+
+    /**
+     * 反射解析表配置
+     *
+     * @param clazz 类
+     * @return 表配置，类中没有@ExcelColumn时为null
+     */
+    private TableConfig build(Class<?> clazz)
+    {
         List<Field> fieldList = newArrayList();
         addDeclaredFields(clazz, fieldList, true, false);
         List<Method> methodList = newArrayList();
@@ -140,10 +241,27 @@ public class TableConfigLoader
         {
             tableConfig.setUnique(true);
         }
-        CACHE.put(clazz.getName(), tableConfig);
+        tableConfig.setValidatePlan(new ValidatePlan(tableConfig));
         return tableConfig;
     }
 
+    /**
+     * 获取表配置的校验计划，没有时编译并保存在表配置中
+     *
+     * @param config 表配置
+     * @return 校验计划
+     */
+    public ValidatePlan getPlan(TableConfig config)
+    {
+        ValidatePlan plan = config.getValidatePlan();
+        if (plan == null)
+        {
+            plan = new ValidatePlan(config);
+            config.setValidatePlan(plan);
+        }
+        return plan;
+    }
+
     private void dealField(List<String> fList, Map<Integer, ColumnConfig> columnMap, Map<String, String> fieldTitleMap,
             Map<String, DataType> fieldDataTypeMap, TableConfig tableConfig, Entry<Member, ExcelColumn> entry)
     {
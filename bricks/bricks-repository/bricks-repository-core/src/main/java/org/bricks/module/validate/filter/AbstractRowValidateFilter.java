@@ -5,11 +5,13 @@ import static org.apache.commons.collections4.MapUtils.isNotEmpty;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.springframework.util.ClassUtils;
+
 import org.bricks.module.bean.ColumnConfig;
 import org.bricks.module.bean.TableConfig;
 
 /**
- * 抽象行级校验过滤器
+ * 抽象行级校验过滤器，默认不参与并行校验
  *
  * @author fuzy
  */
@@ -17,8 +19,33 @@ public abstract class AbstractRowValidateFilter extends AbstractValidateFilter<M
         implements RowValidateFilter
 {
 
+    /**
+     * 子类是否覆盖了不带行号的校验，覆盖时带行号的校验仍交给它执行
+     */
+    private final boolean legacy = ClassUtils.getMethod(getClass(), "validate", Map.class, TableConfig.class)
+            .getDeclaringClass() != AbstractRowValidateFilter.class;
+
     @Override
     public boolean validate(Map<Integer, String> dataMap, TableConfig config)
+    {
+        return validateColumns(dataMap, config, config.getCurrentRow());
+    }
+
+    @Override
+    public boolean validate(Map<Integer, String> dataMap, TableConfig config, int row)
+    {
+        return legacy ? validate(dataMap, config) : validateColumns(dataMap, config, row);
+    }
+
+    /**
+     * 逐列校验
+     *
+     * @param dataMap 行数据
+     * @param config 表配置
+     * @param row 行序号
+     * @return 结果
+     */
+    private boolean validateColumns(Map<Integer, String> dataMap, TableConfig config, int row)
     {
         boolean result = true;
         if (isNotEmpty(dataMap))
@@ -26,8 +53,7 @@ public abstract class AbstractRowValidateFilter extends AbstractValidateFilter<M
             for (Entry<Integer, ColumnConfig> entry : config.getColumnMap()
                     .entrySet())
             {
-                boolean flag = validate(config.getCurrentRow(), entry.getKey(), entry.getValue(), dataMap,
-                        config.getEntityClass());
+                boolean flag = validate(row, entry.getKey(), entry.getValue(), dataMap, config.getEntityClass());
                 result = flag && result;
             }
         }
@@ -1,16 +1,23 @@
 package org.bricks.module.validate.filter;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.emptyList;
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.bricks.module.constants.Constants.PoiConstants.EXCEL_ERR_UNIQUE;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.bricks.module.bean.TableConfig;
+import org.bricks.module.bean.ValidateContext;
+import org.bricks.module.validate.index.UniqueIndex;
+import org.bricks.module.validate.index.UniqueKey;
 
 /**
- * 抽象表级校验过滤器
+ * 抽象表级校验过滤器，定义了唯一键时按哈希索引单遍检查，否则逐行两两比较
  *
  * @author fuzy
  */
@@ -19,17 +26,105 @@ public abstract class AbstractTableValidateFilter extends AbstractValidateFilter
 {
 
     /**
-     * threadLocal
+     * 已判定重复的行
      */
-    private final ThreadLocal<Map<Integer, List<Integer>>> threadLocal = new ThreadLocal<>();
+    private final ThreadLocal<Set<Integer>> threadLocal = new ThreadLocal<>();
+
+    /**
+     * 分块校验上下文
+     */
+    private final ThreadLocal<ValidateContext> contextLocal = new ThreadLocal<>();
+
+    @Override
+    public boolean validate(List<Map<Integer, String>> dataList, TableConfig config, ValidateContext context)
+    {
+        contextLocal.set(context);
+        try
+        {
+            return validate(dataList, config);
+        }
+        finally
+        {
+            contextLocal.remove();
+        }
+    }
 
     @Override
     public boolean validate(List<Map<Integer, String>> dataList, TableConfig config)
+    {
+        if (isEmpty(dataList))
+        {
+            return true;
+        }
+        List<UniqueKey> uniqueKeys = getUniqueKeys(config);
+        return isNotEmpty(uniqueKeys) ? indexValidate(dataList, uniqueKeys) : pairValidate(dataList, config);
+    }
+
+    /**
+     * 唯一键定义，默认无，子类返回后用哈希索引代替逐行比较
+     *
+     * @param config 表配置
+     * @return 唯一键列表
+     */
+    protected List<UniqueKey> getUniqueKeys(TableConfig config)
+    {
+        return emptyList();
+    }
+
+    /**
+     * 哈希索引检查，每行每个唯一键只计算一次。
+     * 重复的错误信息记在首次出现的行上；分块校验时首次出现的行在之前的块中，错误信息记在当前行上
+     *
+     * @param dataList 数据
+     * @param uniqueKeys 唯一键列表
+     * @return 结果
+     */
+    protected boolean indexValidate(List<Map<Integer, String>> dataList, List<UniqueKey> uniqueKeys)
+    {
+        List<UniqueIndex> indexList = getIndexList(uniqueKeys.size(), dataList.size());
+        int offset = getOffset();
+        boolean result = true;
+        for (int k = 0; k < uniqueKeys.size(); k++)
+        {
+            UniqueKey uniqueKey = uniqueKeys.get(k);
+            UniqueIndex index = indexList.get(k);
+            for (int i = 0; i < dataList.size(); i++)
+            {
+                String key = uniqueKey.extract(dataList.get(i));
+                if (key != null)
+                {
+                    int row = offset + i;
+                    int first = index.putIfAbsent(key, row);
+                    if (first > -1)
+                    {
+                        if (first >= offset)
+                        {
+                            setDuplicateMessage(dataList.get(first - offset), row, uniqueKey.getColumn());
+                        }
+                        else
+                        {
+                            setDuplicateMessage(dataList.get(i), first, uniqueKey.getColumn());
+                        }
+                        result = false;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 逐行两两比较
+     *
+     * @param dataList 数据
+     * @param config 配置
+     * @return 结果
+     */
+    protected boolean pairValidate(List<Map<Integer, String>> dataList, TableConfig config)
     {
         boolean result = true;
-        Map<Integer, List<Integer>> duplicateMap = newHashMap();
-        threadLocal.set(duplicateMap);
-        if (isNotEmpty(dataList))
+        threadLocal.set(newHashSet());
+        try
         {
             for (int i = 0; i < dataList.size(); i++)
             {
@@ -37,7 +132,10 @@ public abstract class AbstractTableValidateFilter extends AbstractValidateFilter
                 result = flag && result;
             }
         }
-        threadLocal.remove();
+        finally
+        {
+            threadLocal.remove();
+        }
         return result;
     }
 
@@ -52,11 +150,11 @@ public abstract class AbstractTableValidateFilter extends AbstractValidateFilter
     protected boolean validate(int row, List<Map<Integer, String>> dataList, TableConfig config)
     {
         boolean result = true;
-        if (isNotEmpty(dataList))
+        if (isNotEmpty(dataList) && notContains(row))
         {
-            for (int i = 0; i < dataList.size(); i++)
+            for (int i = row + 1; i < dataList.size(); i++)
             {
-                if (i > row && notContains(i) && notContains(row))
+                if (notContains(i))
                 {
                     boolean flag = validate(row, i, dataList, config);
                     result = flag && result;
@@ -85,6 +183,36 @@ public abstract class AbstractTableValidateFilter extends AbstractValidateFilter
         return rtn;
     }
 
+    /**
+     * @return 分块校验上下文，整表校验时为null
+     */
+    protected ValidateContext getContext()
+    {
+        return contextLocal.get();
+    }
+
+    /**
+     * @return 当前块之前已校验的行数
+     */
+    protected int getOffset()
+    {
+        ValidateContext context = contextLocal.get();
+        return context != null ? context.getOffset() : 0;
+    }
+
+    /**
+     * 设置唯一性错误信息
+     *
+     * @param dataMap 行数据
+     * @param row 与之重复的行序号
+     * @param column 列描述
+     */
+    protected void setDuplicateMessage(Map<Integer, String> dataMap, int row, Object column)
+    {
+        setErrorMessage(dataMap,
+                getMessageSourceAccessor().getMessage(EXCEL_ERR_UNIQUE, new Object[] {row + 2, column}));
+    }
+
     /**
      * 将重复的行记录加进重复列表
      *
@@ -93,23 +221,20 @@ public abstract class AbstractTableValidateFilter extends AbstractValidateFilter
      */
     protected void addDuplicate(int row, int dupIndex)
     {
-        List<Integer> list = threadLocal.get()
-                .computeIfAbsent(row, k -> newArrayList());
-        list.add(dupIndex);
+        threadLocal.get()
+                .add(dupIndex);
     }
 
     /**
-     * 行记录在重复列表中是否存在，包括key和value
+     * 行记录是否未被判定为重复
      *
      * @param index 索引
-     * @return 是否存在
+     * @return 是否未重复
      */
     protected boolean notContains(int index)
     {
-        return threadLocal.get()
-                .values()
-                .stream()
-                .noneMatch(s -> s.contains(index));
+        return !threadLocal.get()
+                .contains(index);
     }
 
     /**
@@ -123,4 +248,22 @@ public abstract class AbstractTableValidateFilter extends AbstractValidateFilter
      */
     protected abstract boolean rowValidate(int row, int index, List<Map<Integer, String>> dataList, TableConfig config);
 
+    /**
+     * 唯一键索引，分块校验时保存在上下文中跨块使用
+     *
+     * @param size 唯一键数
+     * @param expected 预计行数
+     * @return 索引列表
+     */
+    private List<UniqueIndex> getIndexList(int size, int expected)
+    {
+        ValidateContext context = getContext();
+        List<UniqueIndex> indexList = context != null ? context.getState(this, () -> newArrayList()) : newArrayList();
+        while (indexList.size() < size)
+        {
+            indexList.add(new UniqueIndex(expected));
+        }
+        return indexList;
+    }
+
 }
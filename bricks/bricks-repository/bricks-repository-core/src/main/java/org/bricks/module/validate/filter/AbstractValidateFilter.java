@@ -2,9 +2,12 @@ package org.bricks.module.validate.filter;
 
 import static org.bricks.module.constants.Constants.PoiConstants.ERR_COL;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.springframework.context.i18n.LocaleContextHolder.getLocale;
 
 import java.util.Map;
 
+import javax.annotation.Resource;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.support.MessageSourceAccessor;
@@ -27,8 +30,20 @@ public abstract class AbstractValidateFilter<D> implements ValidateFilter<D>
     /**
      * 国际化
      */
+    @Resource
     protected Map<String, MessageSourceAccessor> messageSourceAccessorMap;
 
+    /**
+     * 当前语言的国际化，没有对应语言时取默认
+     *
+     * @return 国际化
+     */
+    protected MessageSourceAccessor getMessageSourceAccessor()
+    {
+        MessageSourceAccessor accessor = messageSourceAccessorMap.get(getLocale().toString());
+        return accessor != null ? accessor : messageSourceAccessorMap.get("default");
+    }
+
     /**
      * 添加错误信息
      *
@@ -1,30 +1,30 @@
 package org.bricks.module.validate.filter;
 
-import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
 import static org.bricks.module.constants.Constants.PoiConstants.EXCEL_ERR_FOMAT;
 import static org.bricks.module.constants.Constants.PoiConstants.EXCEL_ERR_VALUE;
 import static org.bricks.module.constants.Constants.PoiConstants.EXCEL_IS_NULL;
 import static org.bricks.module.constants.Constants.PoiConstants.EXCEL_TOO_LONG;
-import static org.bricks.utils.ObjectUtils.getEnumValue;
-import static org.bricks.utils.ReflectionUtils.addDeclaredFields;
+import static org.bricks.module.validate.plan.ValidatePlan.getFieldMap;
 import static org.bricks.utils.RegexUtils.matches;
+import static org.apache.commons.collections4.MapUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.springframework.context.i18n.LocaleContextHolder.getLocale;
 
-import java.lang.reflect.Field;
-import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import javax.annotation.Resource;
+
+import org.springframework.context.support.MessageSourceAccessor;
 import org.springframework.stereotype.Service;
 
 import org.bricks.module.bean.ColumnConfig;
-import org.bricks.module.enums.DataType;
+import org.bricks.module.bean.TableConfig;
+import org.bricks.module.service.TableConfigLoader;
+import org.bricks.module.validate.plan.ColumnPlan;
 
 /**
- * 基本行级校验
+ * 基本行级校验，按表配置编译好的校验计划执行
  *
  * @author fuzy
  */
@@ -33,24 +33,64 @@ public class BasicRowValidateFilter extends AbstractRowValidateFilter
 {
 
     /**
-     * 正则缓存
+     * 加载表配置
      */
-    private final Map<String, Pattern> patternMap = newHashMap();
+    @Resource
+    private TableConfigLoader configLoader;
+
+    @Override
+    public boolean validate(Map<Integer, String> dataMap, TableConfig config, int row)
+    {
+        boolean result = true;
+        if (!isEmpty(dataMap))
+        {
+            MessageSourceAccessor accessor = getMessageSourceAccessor();
+            for (ColumnPlan plan : configLoader.getPlan(config)
+                    .getColumnList())
+            {
+                boolean flag = validate(row, plan, dataMap, accessor);
+                result = flag && result;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isParallel()
+    {
+        return true;
+    }
 
     @Override
     protected boolean validate(int row, int column, ColumnConfig columnConfig, Map<Integer, String> dataMap,
             Class<?> entityClass)
     {
+        ColumnPlan plan = new ColumnPlan(column, columnConfig, getFieldMap(entityClass).get(columnConfig.getField()));
+        return validate(row, plan, dataMap, getMessageSourceAccessor());
+    }
+
+    /**
+     * 校验单列数据
+     *
+     * @param row 行序号
+     * @param plan 列校验计划
+     * @param dataMap 行数据
+     * @param accessor 国际化
+     * @return 结果
+     */
+    private boolean validate(int row, ColumnPlan plan, Map<Integer, String> dataMap, MessageSourceAccessor accessor)
+    {
+        String value = dataMap.get(plan.getColumn());
         // 必填校验
-        boolean result = mandatoryValidate(row, column, columnConfig, dataMap);
+        boolean result = mandatoryValidate(row, plan, value, dataMap, accessor);
         // 长度校验
-        boolean flag = lengthValidate(row, column, columnConfig, dataMap);
+        boolean flag = lengthValidate(row, plan, value, dataMap, accessor);
         result = flag && result;
         // 正则校验
-        flag = regexValidate(row, column, columnConfig, dataMap);
+        flag = regexValidate(row, plan, value, dataMap, accessor);
         result = flag && result;
         // 枚举校验
-        flag = enumValidate(row, column, columnConfig, dataMap, entityClass);
+        flag = enumValidate(row, plan, value, dataMap, accessor);
         result = flag && result;
         return result;
     }
@@ -59,18 +99,18 @@ public class BasicRowValidateFilter extends AbstractRowValidateFilter
      * 必填校验
      *
      * @param row 行序号
-     * @param column 列序号
-     * @param columnConfig 列配置
+     * @param plan 列校验计划
+     * @param value 单元格值
      * @param dataMap 行数据
+     * @param accessor 国际化
      * @return 结果
      */
-    private boolean mandatoryValidate(int row, int column, ColumnConfig columnConfig, Map<Integer, String> dataMap)
+    private boolean mandatoryValidate(int row, ColumnPlan plan, String value, Map<Integer, String> dataMap,
+            MessageSourceAccessor accessor)
     {
-        String value = dataMap.get(column);
-        if (columnConfig.isMandatory() && isBlank(value))
+        if (plan.isMandatory() && isBlank(value))
         {
-            setErrorMessage(dataMap, messageSourceAccessorMap.get(getLocale().toString())
-                    .getMessage(EXCEL_IS_NULL, new Object[] {row + 1, column + 1}));
+            setErrorMessage(dataMap, row, plan, EXCEL_IS_NULL, accessor);
             return false;
         }
         return true;
@@ -80,19 +120,19 @@ public class BasicRowValidateFilter extends AbstractRowValidateFilter
      * 长度校验
      *
      * @param row 行序号
-     * @param column 列序号
-     * @param columnConfig 列配置
+     * @param plan 列校验计划
+     * @param value 单元格值
      * @param dataMap 行数据
+     * @param accessor 国际化
      * @return 结果
      */
-    private boolean lengthValidate(int row, int column, ColumnConfig columnConfig, Map<Integer, String> dataMap)
+    private boolean lengthValidate(int row, ColumnPlan plan, String value, Map<Integer, String> dataMap,
+            MessageSourceAccessor accessor)
     {
-        String value = dataMap.get(column);
-        int maxLength = columnConfig.getMaxLength();
-        if (maxLength > 0 && value.length() > maxLength)
+        int maxLength = plan.getMaxLength();
+        if (maxLength > 0 && value != null && value.length() > maxLength)
         {
-            setErrorMessage(dataMap, messageSourceAccessorMap.get(getLocale().toString())
-                    .getMessage(EXCEL_TOO_LONG, new Object[] {row + 1, column + 1}));
+            setErrorMessage(dataMap, row, plan, EXCEL_TOO_LONG, accessor);
             return false;
         }
         return true;
@@ -102,87 +142,59 @@ public class BasicRowValidateFilter extends AbstractRowValidateFilter
      * 正则校验
      *
      * @param row 行序号
-     * @param column 列序号
-     * @param columnConfig 列配置
+     * @param plan 列校验计划
+     * @param value 单元格值
      * @param dataMap 行数据
+     * @param accessor 国际化
      * @return 结果
      */
-    private boolean regexValidate(int row, int column, ColumnConfig columnConfig, Map<Integer, String> dataMap)
+    private boolean regexValidate(int row, ColumnPlan plan, String value, Map<Integer, String> dataMap,
+            MessageSourceAccessor accessor)
     {
-        String value = dataMap.get(column);
-        String regex = columnConfig.getRegex();
-        if (isNotBlank(regex))
+        Pattern pattern = plan.getPattern();
+        if (pattern != null && isNotBlank(value) && !matches(pattern, value))
         {
-            Pattern pattern = patternMap.get(regex);
-            if (pattern == null)
-            {
-                pattern = Pattern.compile(regex);
-                patternMap.put(regex, pattern);
-            }
-            if (isNotBlank(value) && !matches(pattern, value))
-            {
-                setErrorMessage(dataMap, messageSourceAccessorMap.get(getLocale().toString())
-                        .getMessage(EXCEL_ERR_FOMAT, new Object[] {row + 1, column + 1}));
-                return false;
-            }
+            setErrorMessage(dataMap, row, plan, EXCEL_ERR_FOMAT, accessor);
+            return false;
         }
         return true;
     }
 
     /**
-     * 枚举校验
+     * 枚举校验，实体类中没有该字段时校验失败
      *
      * @param row 行序号
-     * @param column 列序号
-     * @param columnConfig 列配置
+     * @param plan 列校验计划
+     * @param value 单元格值
      * @param dataMap 行数据
-     * @param entityClass 实体类
+     * @param accessor 国际化
      * @return 结果
      */
-    private boolean enumValidate(int row, int column, ColumnConfig columnConfig, Map<Integer, String> dataMap,
-            Class<?> entityClass)
+    private boolean enumValidate(int row, ColumnPlan plan, String value, Map<Integer, String> dataMap,
+            MessageSourceAccessor accessor)
     {
-        boolean result = false;
-        if (columnConfig.getDataType() == DataType.ENUM)
-        {
-            String value = dataMap.get(column);
-            String fieldName = columnConfig.getField();
-            List<Field> fieldList = newArrayList();
-            addDeclaredFields(entityClass, fieldList, true, false);
-            for (Field field : fieldList)
-            {
-                if (field.getName()
-                        .equals(fieldName))
-                {
-                    result = enumValidate(value, field.getType());
-                    break;
-                }
-            }
-            if (!result)
-            {
-                setErrorMessage(dataMap, messageSourceAccessorMap.get(getLocale().toString())
-                        .getMessage(EXCEL_ERR_VALUE, new Object[] {row + 1, column + 1}));
-            }
-        }
-        else
+        if (plan.isEnumColumn() && (plan.getFieldType() == null || isNotBlank(value) && !plan.getEnumValues()
+                .contains(value)))
         {
-            result = true;
+            setErrorMessage(dataMap, row, plan, EXCEL_ERR_VALUE, accessor);
+            return false;
         }
-        return result;
+        return true;
     }
 
-    private boolean enumValidate(String value, Class<?> clazz)
+    /**
+     * 添加错误信息
+     *
+     * @param dataMap 行数据
+     * @param row 行序号
+     * @param plan 列校验计划
+     * @param code 信息编码
+     * @param accessor 国际化
+     */
+    private void setErrorMessage(Map<Integer, String> dataMap, int row, ColumnPlan plan, String code,
+            MessageSourceAccessor accessor)
     {
-        if (isBlank(value))
-        {
-            return true;
-        }
-        // 处理枚举类型
-        if (clazz.isEnum())
-        {
-            return getEnumValue(clazz, value) != null;
-        }
-        return false;
+        setErrorMessage(dataMap, accessor.getMessage(code, new Object[] {row + 1, plan.getColumn() + 1}));
     }
 
 }
@@ -1,13 +1,12 @@
 package org.bricks.module.validate.filter;
 
-import static org.bricks.module.constants.Constants.PoiConstants.EXCEL_ERR_UNIQUE;
-import static java.text.MessageFormat.format;
+import static com.google.common.collect.Lists.newArrayList;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.IntStream.of;
-import static org.apache.commons.collections4.CollectionUtils.isEmpty;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.lang3.ArrayUtils.isEmpty;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.springframework.context.i18n.LocaleContextHolder.getLocale;
 
 import java.util.Arrays;
 import java.util.List;
@@ -18,93 +17,101 @@ import org.springframework.stereotype.Service;
 
 import org.bricks.module.bean.ColumnConfig;
 import org.bricks.module.bean.TableConfig;
+import org.bricks.module.validate.index.UniqueKey;
 
 /**
+ * 基本表级校验，唯一列和联合唯一列的重复检查
  *
+ * @author fuzy
  */
 @Service
 public class BasicTableValidateFilter extends AbstractTableValidateFilter
 {
 
     /**
-     * 唯一性检查，唯一性字段全都相同返回false
+     * 唯一列和联合唯一列各生成一个唯一键
      *
-     * @param row 行号
-     * @param index 索引
-     * @param dataList 数据列表
      * @param config 表配置
-     * @return 结果
+     * @return 唯一键列表
      */
     @Override
-    protected boolean validate(int row, int index, List<Map<Integer, String>> dataList, TableConfig config)
+    protected List<UniqueKey> getUniqueKeys(TableConfig config)
     {
-        boolean rtn = rowValidate(row, index, dataList, config);
-        boolean flag = rowsValidate(row, index, dataList, config);
-        rtn = flag && rtn;
-        if (!rtn)
-        {
-            addDuplicate(row, index);
-        }
-        return rtn;
-    }
-
-    @Override
-    protected boolean rowValidate(int row, int index, List<Map<Integer, String>> dataList, TableConfig config)
-    {
-        boolean rtn = true;
-        Map<Integer, String> dataMap1 = dataList.get(row);
-        Map<Integer, String> dataMap2 = dataList.get(index);
-        Map<Integer, ColumnConfig> columnConfig = config.getColumnMap();
-        for (Entry<Integer, ColumnConfig> entry : columnConfig.entrySet())
+        List<UniqueKey> uniqueKeys = newArrayList();
+        for (Entry<Integer, ColumnConfig> entry : config.getColumnMap()
+                .entrySet())
         {
             if (entry.getValue()
                     .isUnique())
             {
                 int column = entry.getKey();
-                String value1 = dataMap1.get(column);
-                String value2 = dataMap2.get(column);
-                if (isNotBlank(value1) && value1.equals(value2))
+                uniqueKeys.add(new UniqueKey(column + 1, dataMap ->
                 {
-                    setErrorMessage(dataList.get(row), messageSourceAccessorMap.get(getLocale().toString())
-                            .getMessage(EXCEL_ERR_UNIQUE, new Object[] {index + 2, column + 1}));
-                    rtn = false;
+                    String value = dataMap.get(column);
+                    return isNotBlank(value) ? value : null;
+                }));
+            }
+        }
+        List<int[]> uniques = config.getUniques();
+        if (isNotEmpty(uniques))
+        {
+            for (int[] u : uniques)
+            {
+                if (!isEmpty(u))
+                {
+                    uniqueKeys.add(new UniqueKey(u.length == 1 ? String.valueOf(u[0] + 1)
+                            : Arrays.toString(of(u).map(i -> i + 1)
+                                    .toArray()), dataMap -> joinKey(u, dataMap)));
                 }
             }
         }
-        return rtn;
+        return uniqueKeys;
     }
 
-    private boolean rowsValidate(int row, int index, List<Map<Integer, String>> dataList, TableConfig config)
+    /**
+     * 唯一性检查，任一唯一键相同返回false
+     *
+     * @param row 行号
+     * @param index 索引
+     * @param dataList 数据列表
+     * @param config 表配置
+     * @return 结果
+     */
+    @Override
+    protected boolean rowValidate(int row, int index, List<Map<Integer, String>> dataList, TableConfig config)
     {
-        List<int[]> uniques = config.getUniques();
-        if (isEmpty(uniques))
-        {
-            return true;
-        }
         boolean rtn = true;
         Map<Integer, String> dataMap1 = dataList.get(row);
         Map<Integer, String> dataMap2 = dataList.get(index);
-        for (int[] u : uniques)
+        for (UniqueKey uniqueKey : getUniqueKeys(config))
         {
-            if (isEmpty(u))
-            {
-                continue;
-            }
-            String value1 = of(u).mapToObj(dataMap1::get)
-                    .collect(joining("\0"));
-            String value2 = of(u).mapToObj(dataMap2::get)
-                    .collect(joining("\0"));
-            if (isNotBlank(value1) && value1.equals(value2))
+            String key = uniqueKey.extract(dataMap1);
+            if (key != null && key.equals(uniqueKey.extract(dataMap2)))
             {
-                setErrorMessage(dataList.get(row),
-                        format(EXCEL_ERR_UNIQUE, index + 2,
-                                u.length == 1 ? String.valueOf(u[0])
-                                        : Arrays.toString(of(u).map(i -> i + 1)
-                                                .toArray())));
+                setDuplicateMessage(dataMap1, getOffset() + index, uniqueKey.getColumn());
                 rtn = false;
             }
         }
         return rtn;
     }
 
+    /**
+     * 联合唯一键，各列以\0连接，全部为空时不参与检查
+     *
+     * @param columns 列号
+     * @param dataMap 行数据
+     * @return 唯一键
+     */
+    private static String joinKey(int[] columns, Map<Integer, String> dataMap)
+    {
+        boolean blank = true;
+        for (int column : columns)
+        {
+            blank = blank && isBlank(dataMap.get(column));
+        }
+        return blank ? null
+                : of(columns).mapToObj(column -> String.valueOf(dataMap.getOrDefault(column, "")))
+                        .collect(joining("\0"));
+    }
+
 }
@@ -2,6 +2,8 @@ package org.bricks.module.validate.filter;
 
 import java.util.Map;
 
+import org.bricks.module.bean.TableConfig;
+
 /**
  * 行级校验过滤器
  *
@@ -11,4 +13,27 @@ import java.util.Map;
 public interface RowValidateFilter extends ValidateFilter<Map<Integer, String>>
 {
 
+    /**
+     * 校验单行，行号由调用方传入，不读取表配置中的当前行
+     *
+     * @param dataMap 行数据
+     * @param config 表配置
+     * @param row 行序号
+     * @return 结果
+     */
+    default boolean validate(Map<Integer, String> dataMap, TableConfig config, int row)
+    {
+        return validate(dataMap, config);
+    }
+
+    /**
+     * 是否可以多线程并行校验，实现了带行号的校验且无共享可变状态时返回true
+     *
+     * @return 是否可并行
+     */
+    default boolean isParallel()
+    {
+        return false;
+    }
+
 }
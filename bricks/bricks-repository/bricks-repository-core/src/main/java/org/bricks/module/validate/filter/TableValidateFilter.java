@@ -3,6 +3,9 @@ package org.bricks.module.validate.filter;
 import java.util.List;
 import java.util.Map;
 
+import org.bricks.module.bean.TableConfig;
+import org.bricks.module.bean.ValidateContext;
+
 /**
  * 表级校验过滤器
  *
@@ -12,4 +15,17 @@ import java.util.Map;
 public interface TableValidateFilter extends ValidateFilter<List<Map<Integer, String>>>
 {
 
+    /**
+     * 分块校验，上下文中携带已校验行数和跨块状态
+     *
+     * @param dataList 当前块数据
+     * @param config 表配置
+     * @param context 校验上下文
+     * @return 结果
+     */
+    default boolean validate(List<Map<Integer, String>> dataList, TableConfig config, ValidateContext context)
+    {
+        return validate(dataList, config);
+    }
+
 }
@@ -0,0 +1,163 @@
+package org.bricks.module.validate.index;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+
+/**
+ * 唯一键索引，开放寻址(线性探测)哈希表，记录每个键首次出现的行
+ *
+ * @author fuzy
+ *
+ */
+public class UniqueIndex
+{
+
+    /**
+     * 最小容量
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * 黄金分割乘数，打散hashCode
+     */
+    private static final int SPREAD = 0x9E3779B9;
+
+    /**
+     * 键
+     */
+    private String[] keys;
+
+    /**
+     * 键的哈希值
+     */
+    private int[] hashes;
+
+    /**
+     * 键首次出现的行
+     */
+    private int[] rows;
+
+    /**
+     * 键数
+     */
+    private int size;
+
+    /**
+     * 构造方法
+     */
+    public UniqueIndex()
+    {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param expected 预计键数
+     */
+    public UniqueIndex(int expected)
+    {
+        allocate(capacity(expected));
+    }
+
+    /**
+     * 键不存在时记录行号
+     *
+     * @param key 键
+     * @param row 行号
+     * @return 键已存在时返回首次出现的行，否则返回-1
+     */
+    public int putIfAbsent(String key, int row)
+    {
+        int hash = hash(key);
+        int mask = keys.length - 1;
+        int i = hash & mask;
+        while (keys[i] != null)
+        {
+            if (hashes[i] == hash && keys[i].equals(key))
+            {
+                return rows[i];
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        hashes[i] = hash;
+        rows[i] = row;
+        if (++size > keys.length >> 1)
+        {
+            resize();
+        }
+        return -1;
+    }
+
+    /**
+     * @return 键数
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * 扩容一倍并重新散列
+     */
+    private void resize()
+    {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldRows = rows;
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++)
+        {
+            if (oldKeys[j] != null)
+            {
+                int i = oldHashes[j] & mask;
+                while (keys[i] != null)
+                {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                hashes[i] = oldHashes[j];
+                rows[i] = oldRows[j];
+            }
+        }
+    }
+
+    /**
+     * 分配数组
+     *
+     * @param capacity 容量，2的幂
+     */
+    private void allocate(int capacity)
+    {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        rows = new int[capacity];
+    }
+
+    /**
+     * 负载因子0.5时的容量
+     *
+     * @param expected 预计键数
+     * @return 2的幂容量
+     */
+    private static int capacity(int expected)
+    {
+        int capacity = max(MIN_CAPACITY, highestOneBit(max(expected, 1)) << 2);
+        return capacity > 0 ? capacity : 1 << 30;
+    }
+
+    /**
+     * 哈希值
+     *
+     * @param key 键
+     * @return 打散后的哈希值
+     */
+    private static int hash(String key)
+    {
+        int h = key.hashCode() * SPREAD;
+        return h ^ h >>> 16;
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.bricks.module.validate.index;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 唯一键定义，提取器从一行数据中计算复合键
+ *
+ * @author fuzy
+ *
+ */
+@Getter
+@AllArgsConstructor
+public class UniqueKey
+{
+
+    /**
+     * 列描述，用于错误信息
+     */
+    private final Object column;
+
+    /**
+     * 唯一键提取，返回null时该行不参与检查
+     */
+    private final Function<Map<Integer, String>, String> extractor;
+
+    /**
+     * 提取唯一键
+     *
+     * @param dataMap 行数据
+     * @return 唯一键
+     */
+    public String extract(Map<Integer, String> dataMap)
+    {
+        return extractor.apply(dataMap);
+    }
+
+}
@@ -1,15 +1,25 @@
 package org.bricks.module.validate.manager;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.ForkJoinPool.commonPool;
+import static org.springframework.context.i18n.LocaleContextHolder.getLocale;
+import static org.springframework.context.i18n.LocaleContextHolder.getLocaleContext;
+import static org.springframework.context.i18n.LocaleContextHolder.setLocale;
+import static org.springframework.context.i18n.LocaleContextHolder.setLocaleContext;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.RecursiveTask;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
+import org.springframework.context.i18n.LocaleContext;
 import org.springframework.stereotype.Component;
 
 import org.bricks.module.bean.TableConfig;
+import org.bricks.module.bean.ValidateContext;
 import org.bricks.module.validate.filter.RowValidateFilter;
 import org.bricks.module.validate.filter.TableValidateFilter;
 
@@ -34,6 +44,18 @@ public class FilterManagerImpl implements ValidateFilterManager
      */
     private final List<TableValidateFilter> tableFilterList;
 
+    /**
+     * 行校验并行执行
+     */
+    @Value("${bricks.poi.parallel:false}")
+    private boolean parallel;
+
+    /**
+     * 并行校验时每个任务的行数，行数不超过时串行
+     */
+    @Value("${bricks.poi.parallelSize:1000}")
+    private int parallelSize;
+
     /**
      * 构造方法
      */
@@ -60,15 +82,25 @@ public class FilterManagerImpl implements ValidateFilterManager
     @Override
     public boolean validate(List<Map<Integer, String>> dataList, TableConfig config)
     {
-        boolean result = tableValidate(dataList, config);
-        int row = 1;
-        for (Map<Integer, String> dataMap : dataList)
+        return validate(dataList, config, new ValidateContext());
+    }
+
+    @Override
+    public boolean validate(List<Map<Integer, String>> dataList, TableConfig config, ValidateContext context)
+    {
+        boolean result = tableValidate(dataList, config, context);
+        int size = dataList.size();
+        boolean flag;
+        if (parallel && size > parallelSize && rowFilterList.stream()
+                .allMatch(RowValidateFilter::isParallel))
         {
-            config.setCurrentRow(row++);
-            boolean flag = rowValidate(dataMap, config);
-            result = flag && result;
+            flag = commonPool().invoke(new RowValidateTask(dataList, config, context.getOffset(), 0, size, getLocale()));
         }
-        return result;
+        else
+        {
+            flag = rowValidate(dataList, config, context.getOffset(), 0, size, true);
+        }
+        return flag && result;
     }
 
     /**
@@ -76,14 +108,43 @@ public class FilterManagerImpl implements ValidateFilterManager
      *
      * @param dataList 表数据
      * @param config 配置参数
+     * @param context 校验上下文
      * @return 结果
      */
-    private boolean tableValidate(List<Map<Integer, String>> dataList, TableConfig config)
+    private boolean tableValidate(List<Map<Integer, String>> dataList, TableConfig config, ValidateContext context)
     {
         boolean result = true;
         for (TableValidateFilter filter : tableFilterList)
         {
-            boolean flag = filter.validate(dataList, config);
+            boolean flag = filter.validate(dataList, config, context);
+            result = flag && result;
+        }
+        return result;
+    }
+
+    /**
+     * 验证一段行数据
+     *
+     * @param dataList 表数据
+     * @param config 配置参数
+     * @param offset 当前块之前已校验的行数
+     * @param start 起始索引
+     * @param end 结束索引(不含)
+     * @param current 是否设置表配置的当前行，并行时不设置
+     * @return 结果
+     */
+    private boolean rowValidate(List<Map<Integer, String>> dataList, TableConfig config, int offset, int start,
+            int end, boolean current)
+    {
+        boolean result = true;
+        for (int i = start; i < end; i++)
+        {
+            int row = offset + i + 1;
+            if (current)
+            {
+                config.setCurrentRow(row);
+            }
+            boolean flag = rowValidate(dataList.get(i), config, row);
             result = flag && result;
         }
         return result;
@@ -94,17 +155,105 @@ public class FilterManagerImpl implements ValidateFilterManager
      *
      * @param dataMap 单行数据
      * @param config 配置参数
+     * @param row 行序号
      * @return 结果
      */
-    private boolean rowValidate(Map<Integer, String> dataMap, TableConfig config)
+    private boolean rowValidate(Map<Integer, String> dataMap, TableConfig config, int row)
     {
         boolean result = true;
         for (RowValidateFilter filter : rowFilterList)
         {
-            boolean flag = filter.validate(dataMap, config);
+            boolean flag = filter.validate(dataMap, config, row);
             result = flag && result;
         }
         return result;
     }
 
+    /**
+     * 并行行校验任务，按行区间二分，每行只由一个线程处理，错误信息仍写在各自行上
+     */
+    private class RowValidateTask extends RecursiveTask<Boolean>
+    {
+
+        /**
+         * 序列化
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 表数据
+         */
+        private final transient List<Map<Integer, String>> dataList;
+
+        /**
+         * 配置参数
+         */
+        private final transient TableConfig config;
+
+        /**
+         * 当前块之前已校验的行数
+         */
+        private final int offset;
+
+        /**
+         * 起始索引
+         */
+        private final int start;
+
+        /**
+         * 结束索引(不含)
+         */
+        private final int end;
+
+        /**
+         * 调用线程的语言，错误信息国际化使用
+         */
+        private final Locale locale;
+
+        /**
+         * 构造方法
+         *
+         * @param dataList 表数据
+         * @param config 配置参数
+         * @param offset 当前块之前已校验的行数
+         * @param start 起始索引
+         * @param end 结束索引(不含)
+         * @param locale 语言
+         */
+        RowValidateTask(List<Map<Integer, String>> dataList, TableConfig config, int offset, int start, int end,
+                Locale locale)
+        {
+            this.dataList = dataList;
+            this.config = config;
+            this.offset = offset;
+            this.start = start;
+            this.end = end;
+            this.locale = locale;
+        }
+
+        @Override
+        protected Boolean compute()
+        {
+            if (end - start <= parallelSize)
+            {
+                LocaleContext previous = getLocaleContext();
+                setLocale(locale);
+                try
+                {
+                    return rowValidate(dataList, config, offset, start, end, false);
+                }
+                finally
+                {
+                    setLocaleContext(previous);
+                }
+            }
+            int middle = (start + end) >>> 1;
+            RowValidateTask left = new RowValidateTask(dataList, config, offset, start, middle, locale);
+            left.fork();
+            boolean right = new RowValidateTask(dataList, config, offset, middle, end, locale).compute();
+            return left.join() && right;
+        }
+
+    }
+
 }
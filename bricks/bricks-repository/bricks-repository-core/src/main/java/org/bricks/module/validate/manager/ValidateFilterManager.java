@@ -4,6 +4,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import org.bricks.module.bean.TableConfig;
+import org.bricks.module.bean.ValidateContext;
 import org.bricks.module.validate.filter.RowValidateFilter;
 import org.bricks.module.validate.filter.TableValidateFilter;
 
@@ -30,4 +32,14 @@ public interface ValidateFilterManager extends ValidateManager<List<Map<Integer,
      */
     void addTableFilters(Collection<TableValidateFilter> filters);
 
+    /**
+     * 分块校验，行号从上下文的已校验行数开始
+     *
+     * @param dataList 当前块数据
+     * @param config 表配置
+     * @param context 校验上下文
+     * @return 结果
+     */
+    boolean validate(List<Map<Integer, String>> dataList, TableConfig config, ValidateContext context);
+
 }
@@ -0,0 +1,108 @@
+package org.bricks.module.validate.plan;
+
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Stream.of;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.lang.reflect.Field;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.bricks.enums.ValueEnum;
+import org.bricks.module.bean.ColumnConfig;
+import org.bricks.module.enums.DataType;
+
+import lombok.Getter;
+
+/**
+ * 列校验计划，正则、字段类型和枚举取值预先解析
+ *
+ * @author fuzy
+ *
+ */
+@Getter
+public class ColumnPlan
+{
+
+    /**
+     * 列序号
+     */
+    private final int column;
+
+    /**
+     * 列配置
+     */
+    private final ColumnConfig columnConfig;
+
+    /**
+     * 必填
+     */
+    private final boolean mandatory;
+
+    /**
+     * 最大长度，0不限
+     */
+    private final int maxLength;
+
+    /**
+     * 正则，未配置为null
+     */
+    private final Pattern pattern;
+
+    /**
+     * 是否枚举列
+     */
+    private final boolean enumColumn;
+
+    /**
+     * 字段类型，实体类中没有该字段时为null
+     */
+    private final Class<?> fieldType;
+
+    /**
+     * 枚举合法取值，ValueEnum取getValue()，字段不是枚举时为空
+     */
+    private final Set<Object> enumValues;
+
+    /**
+     * 构造方法
+     *
+     * @param column 列序号
+     * @param columnConfig 列配置
+     * @param field 实体字段
+     */
+    public ColumnPlan(int column, ColumnConfig columnConfig, Field field)
+    {
+        this.column = column;
+        this.columnConfig = columnConfig;
+        mandatory = columnConfig.isMandatory();
+        maxLength = columnConfig.getMaxLength();
+        String regex = columnConfig.getRegex();
+        pattern = isNotBlank(regex) ? Pattern.compile(regex) : null;
+        enumColumn = columnConfig.getDataType() == DataType.ENUM;
+        fieldType = field != null ? field.getType() : null;
+        enumValues = getEnumValues(fieldType);
+    }
+
+    /**
+     * 枚举合法取值，与ObjectUtils.getEnumValue的匹配规则一致
+     *
+     * @param type 字段类型
+     * @return 取值集合
+     */
+    private static Set<Object> getEnumValues(Class<?> type)
+    {
+        if (type == null || !type.isEnum())
+        {
+            return emptySet();
+        }
+        if (ValueEnum.class.isAssignableFrom(type))
+        {
+            return of(type.getEnumConstants()).map(v -> ((ValueEnum<?>) v).getValue())
+                    .collect(toSet());
+        }
+        return of(type.getEnumConstants()).collect(toSet());
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.bricks.module.validate.plan;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static org.bricks.utils.ReflectionUtils.addDeclaredFields;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.bricks.module.bean.ColumnConfig;
+import org.bricks.module.bean.TableConfig;
+
+import lombok.Getter;
+
+/**
+ * 校验计划，每个表配置编译一次，逐行校验时只做实际检查
+ *
+ * @author fuzy
+ *
+ */
+@Getter
+public class ValidatePlan
+{
+
+    /**
+     * 列校验计划
+     */
+    private final List<ColumnPlan> columnList = newArrayList();
+
+    /**
+     * 构造方法
+     *
+     * @param config 表配置
+     */
+    public ValidatePlan(TableConfig config)
+    {
+        Map<String, Field> fieldMap = getFieldMap(config.getEntityClass());
+        for (Entry<Integer, ColumnConfig> entry : config.getColumnMap()
+                .entrySet())
+        {
+            ColumnConfig columnConfig = entry.getValue();
+            columnList.add(new ColumnPlan(entry.getKey(), columnConfig, fieldMap.get(columnConfig.getField())));
+        }
+    }
+
+    /**
+     * 实体类字段，同名字段取子类的
+     *
+     * @param entityClass 实体类
+     * @return Map&lt;字段名, 字段&gt;
+     */
+    public static Map<String, Field> getFieldMap(Class<?> entityClass)
+    {
+        Map<String, Field> fieldMap = newHashMap();
+        if (entityClass != null)
+        {
+            List<Field> fieldList = newArrayList();
+            addDeclaredFields(entityClass, fieldList, true, false);
+            fieldList.forEach(field -> fieldMap.putIfAbsent(field.getName(), field));
+        }
+        return fieldMap;
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.bean;
+
+import static org.bricks.module.constants.Constants.PoiConstants.ERR_COL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.bricks.module.bean.RowTable;
+import org.bricks.module.bean.TableConfig;
+import org.bricks.module.validate.filter.AbstractValidateFilter;
+import org.bricks.module.validate.filter.RowValidateFilter;
+import org.bricks.module.validate.manager.FilterManagerImpl;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class RowTableTest
+{
+
+    @Test
+    public void testParallelValidate()
+    {
+        RowTable table = new RowTable();
+        for (int i = 0; i < 20000; i++)
+        {
+            int row = table.addRow();
+            table.set(row, 0, String.valueOf(i));
+        }
+        FilterManagerImpl manager = new FilterManagerImpl();
+        setField(manager, "parallel", true);
+        setField(manager, "parallelSize", 64);
+        manager.addRowFilters(ImmutableList.of(new OddRowFilter()));
+        assertFalse(manager.validate(table, new TableConfig()));
+        for (int i = 0; i < table.size(); i++)
+        {
+            if (i % 2 == 1)
+            {
+                assertEquals("odd,row " + i, table.get(i, ERR_COL));
+            }
+            else
+            {
+                assertNull(table.get(i, ERR_COL));
+            }
+        }
+    }
+
+    @Test
+    public void testRowView()
+    {
+        RowTable table = new RowTable();
+        table.add(ImmutableMap.of(0, "a", 2, "c"));
+        table.add(ImmutableMap.of(1, "b"));
+        Map<Integer, String> row = table.get(0);
+        assertEquals(ImmutableMap.of(0, "a", 2, "c"), row);
+        assertEquals(row, new HashMap<>(row));
+        assertFalse(row.containsKey(1));
+        assertNull(table.get(1)
+                .get(0));
+        row.put(ERR_COL, "error");
+        row.put(1, "b");
+        assertEquals(ImmutableList.of(0, 1, 2, ERR_COL), new ArrayList<>(row.keySet()));
+        assertEquals("error", table.get(0, ERR_COL));
+        row.put(0, null);
+        assertEquals(3, row.size());
+        assertNull(row.remove(0));
+        assertEquals("c", row.remove(2));
+        Iterator<Entry<Integer, String>> iterator = row.entrySet()
+                .iterator();
+        iterator.next()
+                .setValue("x");
+        iterator.next();
+        iterator.remove();
+        assertEquals(ImmutableMap.of(1, "x"), table.get(0));
+        assertNull(table.get(0, ERR_COL));
+        assertEquals(ImmutableMap.of(1, "x"), table.set(0, ImmutableMap.of(3, "d")));
+        assertEquals(ImmutableMap.of(3, "d"), table.get(0));
+        assertEquals(4, table.width());
+        table.get(1)
+                .clear();
+        assertTrue(table.get(1)
+                .isEmpty());
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void testGrowth()
+    {
+        RowTable table = new RowTable(1);
+        for (int i = 0; i < 1000; i++)
+        {
+            table.add(ImmutableMap.of(0, String.valueOf(i), 1, "v" + i % 2));
+            if (i % 100 == 0)
+            {
+                table.set(i, ERR_COL, "error " + i);
+            }
+        }
+        // 扩容后新增的列也能容纳全部行
+        table.set(999, 5, "last");
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++)
+        {
+            assertEquals(String.valueOf(i), table.get(i, 0));
+            assertEquals(i % 100 == 0 ? "error " + i : null, table.get(i, ERR_COL));
+            assertNull(table.get(i, 2));
+        }
+        assertEquals("last", table.get(999, 5));
+        // 列内相同的值共用一个字符串
+        assertSame(table.get(0, 1), table.get(998, 1));
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.width());
+        int row = table.addRow();
+        assertTrue(table.get(row)
+                .isEmpty());
+        assertNull(table.get(row, ERR_COL));
+    }
+
+    public static class OddRowFilter extends AbstractValidateFilter<Map<Integer, String>> implements RowValidateFilter
+    {
+
+        @Override
+        public boolean validate(Map<Integer, String> dataMap, TableConfig config)
+        {
+            return validate(dataMap, config, config.getCurrentRow());
+        }
+
+        @Override
+        public boolean validate(Map<Integer, String> dataMap, TableConfig config, int row)
+        {
+            int value = Integer.parseInt(dataMap.get(0));
+            if (value % 2 == 0)
+            {
+                return true;
+            }
+            setErrorMessage(dataMap, "odd");
+            setErrorMessage(dataMap, "row " + value);
+            return false;
+        }
+
+        @Override
+        public boolean isParallel()
+        {
+            return true;
+        }
+
+    }
+
+}
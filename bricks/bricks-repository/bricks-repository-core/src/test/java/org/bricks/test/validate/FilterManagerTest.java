@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.validate;
+
+import static org.bricks.module.constants.Constants.PoiConstants.ERR_COL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.context.i18n.LocaleContextHolder.getLocale;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.bricks.module.bean.ColumnConfig;
+import org.bricks.module.bean.TableConfig;
+import org.bricks.module.bean.ValidateContext;
+import org.bricks.module.validate.filter.AbstractCustomRowValidateFilter;
+import org.bricks.module.validate.filter.AbstractRowValidateFilter;
+import org.bricks.module.validate.filter.AbstractValidateFilter;
+import org.bricks.module.validate.filter.RowValidateFilter;
+import org.bricks.module.validate.manager.FilterManagerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import com.google.common.collect.ImmutableList;
+
+public class FilterManagerTest
+{
+
+    @AfterEach
+    public void reset()
+    {
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    @Test
+    public void testParallel()
+    {
+        LocaleContextHolder.setLocale(Locale.FRENCH);
+        List<Map<Integer, String>> serialList = rows(10000);
+        List<Map<Integer, String>> parallelList = rows(10000);
+        TableConfig serialConfig = new TableConfig();
+        TableConfig parallelConfig = new TableConfig();
+        ValidateContext context = new ValidateContext();
+        context.setOffset(100);
+        assertFalse(manager(false, true).validate(serialList, serialConfig, context));
+        assertFalse(manager(true, true).validate(parallelList, parallelConfig, context));
+        assertEquals(serialList, parallelList);
+        assertEquals("3,row 104 fr", parallelList.get(3)
+                .get(ERR_COL));
+        assertNull(parallelList.get(4)
+                .get(ERR_COL));
+        // 并行时不修改表配置
+        assertEquals(10100, serialConfig.getCurrentRow());
+        assertEquals(0, parallelConfig.getCurrentRow());
+    }
+
+    @Test
+    public void testSerialFallback()
+    {
+        List<Map<Integer, String>> dataList = rows(5000);
+        TableConfig config = new TableConfig();
+        FilterManagerImpl manager = manager(true, false);
+        assertFalse(manager.validate(dataList, config));
+        // 有不支持并行的过滤器时串行，行号来自表配置
+        assertEquals(5000, config.getCurrentRow());
+        assertEquals("3,row 4 " + getLocale(), dataList.get(3)
+                .get(ERR_COL));
+    }
+
+    @Test
+    public void testLegacyFilter()
+    {
+        List<Map<Integer, String>> dataList = rows(5000);
+        TableConfig config = new TableConfig();
+        FilterManagerImpl manager = new FilterManagerImpl();
+        setField(manager, "parallel", true);
+        setField(manager, "parallelSize", 64);
+        LegacyRowFilter filter = new LegacyRowFilter();
+        manager.addRowFilters(ImmutableList.of(filter));
+        assertFalse(filter.isParallel());
+        assertFalse(new CustomRowFilter().isParallel());
+        assertFalse(manager.validate(dataList, config));
+        // 覆盖了不带行号校验的旧过滤器仍被调用，行号来自表配置
+        assertEquals("legacy 4", dataList.get(3)
+                .get(ERR_COL));
+        assertNull(dataList.get(4)
+                .get(ERR_COL));
+        assertEquals(5000, config.getCurrentRow());
+    }
+
+    private static List<Map<Integer, String>> rows(int size)
+    {
+        List<Map<Integer, String>> dataList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+        {
+            Map<Integer, String> dataMap = new HashMap<>();
+            dataMap.put(0, String.valueOf(i));
+            dataList.add(dataMap);
+        }
+        return dataList;
+    }
+
+    private static FilterManagerImpl manager(boolean parallel, boolean parallelFilter)
+    {
+        FilterManagerImpl manager = new FilterManagerImpl();
+        setField(manager, "parallel", parallel);
+        setField(manager, "parallelSize", 64);
+        manager.addRowFilters(ImmutableList.of(new ThirdRowFilter(parallelFilter), new RowNumberFilter()));
+        return manager;
+    }
+
+    public static class ThirdRowFilter extends AbstractValidateFilter<Map<Integer, String>> implements RowValidateFilter
+    {
+
+        private final boolean parallel;
+
+        public ThirdRowFilter(boolean parallel)
+        {
+            this.parallel = parallel;
+        }
+
+        @Override
+        public boolean validate(Map<Integer, String> dataMap, TableConfig config)
+        {
+            int value = Integer.parseInt(dataMap.get(0));
+            if (value % 3 != 0 || value == 0)
+            {
+                return true;
+            }
+            setErrorMessage(dataMap, dataMap.get(0));
+            return false;
+        }
+
+        @Override
+        public boolean isParallel()
+        {
+            return parallel;
+        }
+
+    }
+
+    public static class RowNumberFilter extends AbstractValidateFilter<Map<Integer, String>>
+            implements RowValidateFilter
+    {
+
+        @Override
+        public boolean validate(Map<Integer, String> dataMap, TableConfig config)
+        {
+            return validate(dataMap, config, config.getCurrentRow());
+        }
+
+        @Override
+        public boolean validate(Map<Integer, String> dataMap, TableConfig config, int row)
+        {
+            if (dataMap.get(ERR_COL) == null)
+            {
+                return true;
+            }
+            setErrorMessage(dataMap, "row " + row + " " + getLocale());
+            return false;
+        }
+
+        @Override
+        public boolean isParallel()
+        {
+            return true;
+        }
+
+    }
+
+    public static class LegacyRowFilter extends AbstractRowValidateFilter
+    {
+
+        @Override
+        public boolean validate(Map<Integer, String> dataMap, TableConfig config)
+        {
+            if (Integer.parseInt(dataMap.get(0)) % 3 != 0)
+            {
+                return true;
+            }
+            setErrorMessage(dataMap, "legacy " + config.getCurrentRow());
+            return false;
+        }
+
+        @Override
+        protected boolean validate(int row, int column, ColumnConfig columnConfig, Map<Integer, String> dataMap,
+                Class<?> entityClass)
+        {
+            throw new IllegalStateException();
+        }
+
+    }
+
+    public static class CustomRowFilter extends AbstractCustomRowValidateFilter
+    {
+
+        @Override
+        protected boolean validate(int row, int column, Map<Integer, String> dataMap)
+        {
+            return true;
+        }
+
+    }
+
+}
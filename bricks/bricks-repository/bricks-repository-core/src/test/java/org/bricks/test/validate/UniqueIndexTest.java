@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 fuzy(winhkey) (https://github.com/winhkey/bricks-root)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bricks.test.validate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+
+import org.bricks.module.validate.index.UniqueIndex;
+import org.junit.jupiter.api.Test;
+
+public class UniqueIndexTest
+{
+
+    @Test
+    public void testCollision()
+    {
+        // "Aa"、"BB"、"C#"的hashCode相同，只能靠探测区分
+        UniqueIndex index = new UniqueIndex();
+        assertEquals(-1, index.putIfAbsent("Aa", 0));
+        assertEquals(-1, index.putIfAbsent("BB", 1));
+        assertEquals(-1, index.putIfAbsent("C#", 2));
+        assertEquals(0, index.putIfAbsent("Aa", 3));
+        assertEquals(1, index.putIfAbsent("BB", 4));
+        assertEquals(2, index.putIfAbsent("C#", 5));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testResize()
+    {
+        UniqueIndex index = new UniqueIndex(1);
+        assertEquals(16, capacity(index));
+        for (int i = 0; i < 8; i++)
+        {
+            assertEquals(-1, index.putIfAbsent("key" + i, i));
+        }
+        assertEquals(16, capacity(index));
+        assertEquals(-1, index.putIfAbsent("key8", 8));
+        assertEquals(32, capacity(index));
+        for (int i = 9; i < 100000; i++)
+        {
+            assertEquals(-1, index.putIfAbsent("key" + i, i));
+        }
+        assertEquals(100000, index.size());
+        assertEquals(262144, capacity(index));
+        for (int i = 0; i < 100000; i++)
+        {
+            assertEquals(i, index.putIfAbsent("key" + i, i + 100000));
+        }
+        assertEquals(100000, index.size());
+    }
+
+    @Test
+    public void testExpected()
+    {
+        UniqueIndex index = new UniqueIndex(1000);
+        for (int i = 0; i < 1000; i++)
+        {
+            index.putIfAbsent(String.valueOf(i), i);
+        }
+        // 预计键数内不扩容
+        assertEquals(2048, capacity(index));
+    }
+
+    private static int capacity(UniqueIndex index)
+    {
+        return ((String[]) getField(index, "keys")).length;
+    }
+
+}